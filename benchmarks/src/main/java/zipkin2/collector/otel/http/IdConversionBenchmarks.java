@@ -0,0 +1,82 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares reading trace and span IDs in place with copying them to arrays first. Run with the GC
+ * profiler: the in-place variants should report zero bytes allocated per operation.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Threads(1)
+public class IdConversionBenchmarks {
+  static final ByteString TRACE_ID = ByteString.fromHex("d239036e7d5cec116b562147388b35bf");
+  static final ByteString SPAN_ID = ByteString.fromHex("9cc1e3049173be09");
+
+  /** Like IDs parsed from a request, which wrap the pooled request buffer. */
+  static final ByteString WRAPPED_TRACE_ID =
+      UnsafeByteOperations.unsafeWrap(ByteBuffer.wrap(TRACE_ID.toByteArray()));
+  static final ByteString WRAPPED_SPAN_ID =
+      UnsafeByteOperations.unsafeWrap(ByteBuffer.wrap(SPAN_ID.toByteArray()));
+
+  @Benchmark public void readIds_inPlace(Blackhole bh) {
+    readIds(TRACE_ID, SPAN_ID, bh);
+  }
+
+  @Benchmark public void readIds_inPlace_wrapped(Blackhole bh) {
+    readIds(WRAPPED_TRACE_ID, WRAPPED_SPAN_ID, bh);
+  }
+
+  /** The approach before IDs were read in place. */
+  @Benchmark public void readIds_copy(Blackhole bh) {
+    byte[] traceIdBytes = TRACE_ID.toByteArray();
+    byte[] spanIdBytes = SPAN_ID.toByteArray();
+    bh.consume(ByteBuffer.wrap(traceIdBytes, 0, 8).getLong());
+    bh.consume(ByteBuffer.wrap(traceIdBytes, 8, 8).getLong());
+    bh.consume(ByteBuffer.wrap(spanIdBytes, 0, 8).getLong());
+  }
+
+  static void readIds(ByteString traceId, ByteString spanId, Blackhole bh) {
+    SpanTranslator.checkIdLength(traceId, SpanTranslator.TRACE_ID_LENGTH, "traceId");
+    SpanTranslator.checkIdLength(spanId, SpanTranslator.SPAN_ID_LENGTH, "spanId");
+    bh.consume(SpanTranslator.bytesToLong(traceId, 0));
+    bh.consume(SpanTranslator.bytesToLong(traceId, 8));
+    bh.consume(SpanTranslator.bytesToLong(spanId, 0));
+  }
+
+  // Convenience main entry-point
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(".*" + IdConversionBenchmarks.class.getSimpleName() + ".*")
+        .addProfiler("gc")
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.util.JsonFormat;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Measures each phase of the OTLP/JSON path of {@code /v1/traces} separately: merging with
+ * {@link JsonFormat}, fixing IDs with {@link ProtoUtils#fixJsonIds}, and translating with
+ * {@link SpanTranslator}. {@link #parseFixAndTranslate()} is the whole path. Run with the GC
+ * profiler to see allocation per phase.
+ *
+ * <p>Fixtures are in {@code src/main/resources/otlp-json}, in the shape exported by the
+ * OpenTelemetry JavaScript SDKs: "browser" is document load, user interaction and fetch spans,
+ * which carry many timing events. "node" is HTTP server, Express, pg and undici spans, which carry
+ * many attributes.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Threads(1)
+public class JsonIngestionBenchmarks {
+  @Param({"browser", "node"})
+  String fixture;
+
+  final JsonFormat.Parser jsonParser = JsonFormat.parser();
+  final SpanTranslator translator = SpanTranslator.newBuilder().build();
+
+  byte[] json;
+  /** The result of {@link #parse()}, before IDs are fixed. */
+  ExportTraceServiceRequest parsed;
+  ExportTraceServiceRequest fixed;
+  ByteString spanId;
+
+  @Setup public void setup() throws IOException {
+    json = fixture(fixture);
+    parsed = parse().build();
+    ExportTraceServiceRequest.Builder builder = parsed.toBuilder();
+    ProtoUtils.fixJsonIds(builder);
+    fixed = builder.build();
+    spanId = parsed.getResourceSpans(0).getScopeSpans(0).getSpans(0).getSpanId();
+  }
+
+  @Benchmark public ExportTraceServiceRequest.Builder parse() throws IOException {
+    ExportTraceServiceRequest.Builder builder = ExportTraceServiceRequest.newBuilder();
+    jsonParser.merge(new InputStreamReader(new ByteArrayInputStream(json), UTF_8), builder);
+    return builder;
+  }
+
+  /** Includes copying {@link #parsed} into a builder, as fixing IDs mutates it. */
+  @Benchmark public ExportTraceServiceRequest fixJsonIds() {
+    ExportTraceServiceRequest.Builder builder = parsed.toBuilder();
+    ProtoUtils.fixJsonIds(builder);
+    return builder.build();
+  }
+
+  /** The cost of fixing a single span ID. */
+  @Benchmark public ByteString hexToBytes() {
+    return ProtoUtils.hexToBytes(spanId);
+  }
+
+  @Benchmark public List<zipkin2.Span> translate() {
+    return translator.translate(fixed);
+  }
+
+  @Benchmark public List<zipkin2.Span> parseFixAndTranslate() throws IOException {
+    ExportTraceServiceRequest.Builder builder = parse();
+    ProtoUtils.fixJsonIds(builder);
+    return translator.translate(builder.build());
+  }
+
+  static byte[] fixture(String name) throws IOException {
+    try (InputStream in =
+             JsonIngestionBenchmarks.class.getResourceAsStream("/otlp-json/" + name + ".json")) {
+      if (in == null) throw new IllegalArgumentException("Unknown fixture: " + name);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      for (int read; (read = in.read(buffer)) != -1; ) out.write(buffer, 0, read);
+      return out.toByteArray();
+    }
+  }
+
+  // Convenience main entry-point
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(".*" + JsonIngestionBenchmarks.class.getSimpleName() + ".*")
+        .addProfiler("gc")
+        .build();
+
+    new Runner(opt).run();
+  }
+}
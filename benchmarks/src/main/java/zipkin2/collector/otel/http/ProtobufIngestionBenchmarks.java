@@ -0,0 +1,158 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UnsafeByteOperations;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.proto.common.v1.AnyValue;
+import io.opentelemetry.proto.common.v1.InstrumentationScope;
+import io.opentelemetry.proto.common.v1.KeyValue;
+import io.opentelemetry.proto.resource.v1.Resource;
+import io.opentelemetry.proto.trace.v1.ResourceSpans;
+import io.opentelemetry.proto.trace.v1.ScopeSpans;
+import io.opentelemetry.proto.trace.v1.Span;
+import io.opentelemetry.proto.trace.v1.Status;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the protobuf path of {@code /v1/traces}: parsing a request from a direct buffer the
+ * way the collector does, then translating it with {@link SpanTranslator}. Run with the GC
+ * profiler, and divide bytes allocated per operation by {@code spanCount} for bytes per span.
+ *
+ * <p>Payloads look like those of an HTTP server instrumented with the OpenTelemetry SDK: each span
+ * has HTTP attributes, padded to {@code attributeCount} with custom ones, and an event.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Threads(1)
+public class ProtobufIngestionBenchmarks {
+  @Param({"10", "100", "1000"})
+  int spanCount;
+
+  @Param({"4", "16", "64"})
+  int attributeCount;
+
+  /** Like the pooled request buffer, which is direct. */
+  ByteBuffer encoded;
+  ExportTraceServiceRequest request;
+  SpanTranslator translator;
+
+  @Setup public void setup() {
+    request = request(spanCount, attributeCount);
+    byte[] bytes = request.toByteArray();
+    encoded = ByteBuffer.allocateDirect(bytes.length);
+    encoded.put(bytes).flip();
+    translator = SpanTranslator.newBuilder().build();
+  }
+
+  @Benchmark public ExportTraceServiceRequest parse() throws InvalidProtocolBufferException {
+    return ExportTraceServiceRequest.parseFrom(
+        UnsafeByteOperations.unsafeWrap(encoded.duplicate()).newCodedInput());
+  }
+
+  @Benchmark public List<zipkin2.Span> translate() {
+    return translator.translate(request);
+  }
+
+  @Benchmark public List<zipkin2.Span> parseAndTranslate() throws InvalidProtocolBufferException {
+    return translator.translate(parse());
+  }
+
+  static ExportTraceServiceRequest request(int spanCount, int attributeCount) {
+    ScopeSpans.Builder scopeSpans = ScopeSpans.newBuilder()
+        .setScope(InstrumentationScope.newBuilder()
+            .setName("io.opentelemetry.tomcat-10.0").setVersion("2.10.0-alpha"));
+    for (int i = 0; i < spanCount; i++) {
+      Span.Builder span = Span.newBuilder()
+          .setTraceId(ByteString.fromHex(String.format("d239036e7d5cec116b562147%08x", i / 10)))
+          .setSpanId(ByteString.fromHex(String.format("9cc1e304%08x", i)))
+          .setParentSpanId(ByteString.fromHex("8b03ab423da481c5"))
+          .setName("GET /users/{id}")
+          .setKind(Span.SpanKind.SPAN_KIND_SERVER)
+          .setStartTimeUnixNano(1505855794194009000L + i * 1000L)
+          .setEndTimeUnixNano(1505855794212009000L + i * 1000L)
+          .setStatus(Status.newBuilder().setCode(Status.StatusCode.STATUS_CODE_UNSET))
+          .addEvents(Span.Event.newBuilder()
+              .setTimeUnixNano(1505855794200009000L + i * 1000L)
+              .setName("cache.miss")
+              .addAttributes(stringAttribute("cache.key", "user:" + i)));
+      addHttpAttributes(span, i, attributeCount);
+      scopeSpans.addSpans(span);
+    }
+    return ExportTraceServiceRequest.newBuilder()
+        .addResourceSpans(ResourceSpans.newBuilder()
+            .setResource(Resource.newBuilder()
+                .addAttributes(stringAttribute("service.name", "frontend"))
+                .addAttributes(stringAttribute("service.version", "1.4.2"))
+                .addAttributes(stringAttribute("host.name", "frontend-7d9f8b6c4-x2x9p"))
+                .addAttributes(stringAttribute("telemetry.sdk.language", "java"))
+                .addAttributes(stringAttribute("telemetry.sdk.name", "opentelemetry"))
+                .addAttributes(stringAttribute("telemetry.sdk.version", "1.43.0")))
+            .addScopeSpans(scopeSpans))
+        .build();
+  }
+
+  static void addHttpAttributes(Span.Builder span, int i, int attributeCount) {
+    KeyValue[] http = {
+        stringAttribute("http.request.method", "GET"),
+        stringAttribute("http.route", "/users/{id}"),
+        intAttribute("http.response.status_code", 200),
+        stringAttribute("url.path", "/users/" + i),
+        stringAttribute("url.scheme", "https"),
+        stringAttribute("server.address", "frontend.example.com"),
+        intAttribute("server.port", 443),
+        stringAttribute("network.peer.address", "10.0.0." + (i % 256)),
+        stringAttribute("user_agent.original", "Mozilla/5.0 (X11; Linux x86_64)")
+    };
+    for (int a = 0; a < attributeCount; a++) {
+      span.addAttributes(a < http.length ? http[a]
+          : stringAttribute("app.custom." + a, "value-" + (i * 31 + a)));
+    }
+  }
+
+  static KeyValue stringAttribute(String key, String value) {
+    return KeyValue.newBuilder().setKey(key)
+        .setValue(AnyValue.newBuilder().setStringValue(value)).build();
+  }
+
+  static KeyValue intAttribute(String key, long value) {
+    return KeyValue.newBuilder().setKey(key)
+        .setValue(AnyValue.newBuilder().setIntValue(value)).build();
+  }
+
+  // Convenience main entry-point
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(".*" + ProtobufIngestionBenchmarks.class.getSimpleName() + ".*")
+        .addProfiler("gc")
+        .build();
+
+    new Runner(opt).run();
+  }
+}
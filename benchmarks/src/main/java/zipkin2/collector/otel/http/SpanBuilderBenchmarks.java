@@ -0,0 +1,74 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import zipkin2.Endpoint;
+import zipkin2.Span;
+
+/**
+ * Compares building spans with a new {@link Span.Builder} each time against the cleared builder
+ * reused by the translators. Run with the GC profiler: the difference in bytes allocated per
+ * operation is the builder, its tag map entries and annotation list.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Threads(1)
+public class SpanBuilderBenchmarks {
+  static final Endpoint FRONTEND = Endpoint.newBuilder().serviceName("frontend").build();
+  static final String[] TAG_KEYS = {"http.request.method", "http.route", "http.response.status_code",
+      "url.path", "url.scheme", "server.address", "server.port", "user_agent.original",
+      "otel.scope.name", "otel.scope.version"};
+
+  @Benchmark public Span buildSpan_newBuilder() {
+    return buildSpan(Span.newBuilder());
+  }
+
+  @Benchmark public Span buildSpan_reusedBuilder() {
+    return buildSpan(SpanTranslator.spanBuilder());
+  }
+
+  static Span buildSpan(Span.Builder builder) {
+    builder.traceId(0x6b221d5bc9e6496cL, 0x6b221d5bc9e6496cL)
+        .id(0x7180c278b62e8f6aL)
+        .kind(Span.Kind.SERVER)
+        .name("get /users/{id}")
+        .timestamp(1505855794194009L)
+        .duration(18000L)
+        .localEndpoint(FRONTEND);
+    for (String key : TAG_KEYS) builder.putTag(key, "value");
+    builder.addAnnotation(1505855794194009L, "exception");
+    builder.addAnnotation(1505855794195009L, "retry");
+    return builder.build();
+  }
+
+  // Convenience main entry-point
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(".*" + SpanBuilderBenchmarks.class.getSimpleName() + ".*")
+        .addProfiler("gc")
+        .build();
+
+    new Runner(opt).run();
+  }
+}
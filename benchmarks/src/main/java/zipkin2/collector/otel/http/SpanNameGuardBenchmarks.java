@@ -0,0 +1,74 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures {@link SpanNameGuard#collapse} when every event loop translates spans of the same
+ * service, which is the common case of one busy service. Compare with {@code -t1} to see the cost
+ * of contention: names already seen, and any name once the service is full, shouldn't lock.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+public class SpanNameGuardBenchmarks {
+  static final int NAME_COUNT = 100;
+
+  final SpanNameGuard guard =
+      SpanNameGuard.create(NAME_COUNT, Collections.singletonList("[0-9]+"), "other");
+  final String[] names = new String[NAME_COUNT];
+
+  @Setup public void setup() {
+    for (int i = 0; i < NAME_COUNT; i++) {
+      names[i] = "get /api/v1/resource" + (char) ('a' + i % 26) + (i / 26);
+      guard.collapse("frontend", names[i]);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class NameIndex {
+    int next;
+  }
+
+  @Benchmark public String collapse_seenName(NameIndex index) {
+    index.next = (index.next + 1) % NAME_COUNT;
+    return guard.collapse("frontend", names[index.next]);
+  }
+
+  /** The service is full, so the name is collapsed with the templates. */
+  @Benchmark public String collapse_full() {
+    return guard.collapse("frontend", "get /api/v1/users/1234");
+  }
+
+  // Convenience main entry-point
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(".*" + SpanNameGuardBenchmarks.class.getSimpleName() + ".*")
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.reporter.otel.brave;
+
+import brave.Span.Kind;
+import brave.handler.MutableSpan;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures {@link OtlpProtoV1Encoder}, which {@code AsyncZipkinSpanHandler} calls on every finished
+ * span: {@link OtlpProtoV1Encoder#sizeInBytes} when queueing it, then
+ * {@link OtlpProtoV1Encoder#encode} when sending it. Run with the GC profiler, and again with
+ * {@code -t4} as the encoder is shared by all application threads.
+ *
+ * <p>HTTP spans have method, path and URL tags. The URL is parsed into several attributes, so it
+ * is the most expensive tag. Spans are padded with custom tags up to {@code tagCount}.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(1)
+public class OtlpProtoV1EncoderBenchmarks {
+  @Param({"client", "server", "local"})
+  String kind;
+
+  @Param({"4", "16", "64"})
+  int tagCount;
+
+  @Param({"false", "true"})
+  boolean error;
+
+  final OtlpProtoV1Encoder encoder = OtlpProtoV1Encoder.create();
+
+  /** Only read by the encoder, so is safe to share between threads. */
+  MutableSpan span;
+
+  @Setup public void setup() {
+    span = span(kind, tagCount, error);
+  }
+
+  @Benchmark public int sizeInBytes() {
+    return encoder.sizeInBytes(span);
+  }
+
+  @Benchmark public byte[] encode() {
+    return encoder.encode(span);
+  }
+
+  static MutableSpan span(String kind, int tagCount, boolean error) {
+    MutableSpan span = new MutableSpan();
+    span.traceId("7180c278b62e8f6a216a2aea45d08fc9");
+    span.parentId("6b221d5bc9e6496c");
+    span.id("5b4185666d50f68b");
+    span.localServiceName("frontend");
+    span.localIp("172.17.0.13");
+    span.startTimestamp(1472470996199000L);
+    span.finishTimestamp(1472470996199000L + 207000L);
+    switch (kind) {
+      case "client":
+        span.kind(Kind.CLIENT);
+        span.name("get");
+        span.remoteServiceName("backend");
+        span.remoteIpAndPort("192.168.99.101", 9000);
+        span.tag("http.method", "GET");
+        span.tag("http.path", "/api/users/1234");
+        span.tag("http.url", "https://backend.example.com:9000/api/users/1234?expand=account");
+        break;
+      case "server":
+        span.kind(Kind.SERVER);
+        span.name("get /api/users/{id}");
+        span.remoteIpAndPort("10.1.9.7", 52011);
+        span.tag("http.method", "GET");
+        span.tag("http.path", "/api/users/1234");
+        span.tag("http.route", "/api/users/{id}");
+        span.tag("http.url", "http://frontend.example.com/api/users/1234");
+        break;
+      case "local":
+        span.name("render");
+        span.annotate(1472470996238000L, "cache.miss");
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown kind: " + kind);
+    }
+    if (error) {
+      if (span.kind() != null) span.tag("http.status_code", "503");
+      span.error(new IllegalStateException("Service Unavailable"));
+    }
+    for (int i = span.tagCount(); i < tagCount; i++) {
+      span.tag("app.custom." + i, "value-" + i);
+    }
+    return span;
+  }
+
+  // Convenience main entry-point
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(".*" + OtlpProtoV1EncoderBenchmarks.class.getSimpleName() + ".*")
+        .addProfiler("gc")
+        .build();
+
+    new Runner(opt).run();
+  }
+}
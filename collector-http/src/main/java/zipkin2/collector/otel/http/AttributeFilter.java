@@ -0,0 +1,68 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import zipkin2.internal.Nullable;
+
+/**
+ * Decides which attribute keys become Zipkin tags, based on allow and deny patterns. See
+ * {@link KeyMatcher} for the pattern syntax.
+ *
+ * <p>A key is dropped if it matches a deny pattern, or if there are allow patterns and it matches
+ * none of them. Deny patterns win over allow patterns.
+ *
+ * <p>Attribute keys are low cardinality, so decisions are cached per key up to a bound. This keeps
+ * glob matching out of the per-span cost.
+ */
+final class AttributeFilter {
+  static final AttributeFilter ALLOW_ALL = new AttributeFilter(KeyMatcher.EMPTY, KeyMatcher.EMPTY);
+
+  /** The rule reported when an allow list is configured and no allow pattern matched. */
+  static final String NOT_ALLOWED = "not_allowed";
+
+  static final int MAX_CACHED_DECISIONS = 4096;
+
+  /** Cached decision to keep the key. Empty patterns are ignored, so this is never a rule. */
+  static final String KEEP = "";
+
+  static AttributeFilter create(@Nullable Collection<String> allowList,
+      @Nullable Collection<String> denyList) {
+    KeyMatcher allow = KeyMatcher.compile(allowList), deny = KeyMatcher.compile(denyList);
+    if (allow.isEmpty() && deny.isEmpty()) return ALLOW_ALL;
+    return new AttributeFilter(allow, deny);
+  }
+
+  final KeyMatcher allow, deny;
+  final ConcurrentHashMap<String, String> decisions = new ConcurrentHashMap<>();
+
+  AttributeFilter(KeyMatcher allow, KeyMatcher deny) {
+    this.allow = allow;
+    this.deny = deny;
+  }
+
+  /** Returns null if the key should be kept, or the rule that dropped it. */
+  @Nullable String dropRule(String key) {
+    if (this == ALLOW_ALL) return null;
+    String decision = decisions.get(key);
+    if (decision == null) {
+      decision = decide(key);
+      if (decisions.size() < MAX_CACHED_DECISIONS) decisions.put(key, decision);
+    }
+    return decision.isEmpty() ? null : decision;
+  }
+
+  String decide(String key) {
+    String denied = deny.match(key);
+    if (denied != null) return denied;
+    if (!allow.isEmpty() && allow.match(key) == null) return NOT_ALLOWED;
+    return KEEP;
+  }
+
+  @Override public String toString() {
+    return "AttributeFilter{allow=" + allow + ", deny=" + deny + "}";
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import com.linecorp.armeria.common.FilteredHttpRequest;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpObject;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.server.HttpService;
+import com.linecorp.armeria.server.ServiceRequestContext;
+import com.linecorp.armeria.server.SimpleDecoratingHttpService;
+import io.netty.util.AttributeKey;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the bytes of compressed requests as they are received, before the decorated
+ * {@link com.linecorp.armeria.server.encoding.DecodingService} decompresses them. The
+ * content-length header can't be used instead, as clients may send chunked requests.
+ */
+final class CompressedSizeService extends SimpleDecoratingHttpService {
+  static final AttributeKey<AtomicLong> COMPRESSED_BYTES =
+      AttributeKey.valueOf(CompressedSizeService.class, "COMPRESSED_BYTES");
+
+  /** Returns the bytes received before decompression, or -1 if the request wasn't compressed. */
+  static long compressedBytes(ServiceRequestContext ctx) {
+    AtomicLong compressedBytes = ctx.attr(COMPRESSED_BYTES);
+    return compressedBytes != null ? compressedBytes.get() : -1L;
+  }
+
+  CompressedSizeService(HttpService delegate) {
+    super(delegate);
+  }
+
+  @Override public HttpResponse serve(ServiceRequestContext ctx, HttpRequest req)
+      throws Exception {
+    if (!req.headers().contains(HttpHeaderNames.CONTENT_ENCODING)) {
+      return unwrap().serve(ctx, req);
+    }
+    AtomicLong compressedBytes = new AtomicLong();
+    ctx.setAttr(COMPRESSED_BYTES, compressedBytes);
+    return unwrap().serve(ctx, new FilteredHttpRequest(req) {
+      @Override protected HttpObject filter(HttpObject obj) {
+        if (obj instanceof HttpData) compressedBytes.addAndGet(((HttpData) obj).length());
+        return obj;
+      }
+    });
+  }
+}
@@ -4,11 +4,23 @@
  */
 package zipkin2.collector.otel.http;
 
+import io.opentelemetry.proto.common.v1.KeyValue;
 import io.opentelemetry.proto.resource.v1.Resource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import zipkin2.Span;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.TruncatedValue;
 
 /**
  * Default implementation of {@link OtelResourceMapper} that simply maps resource attributes except for {@link SemanticConventionsAttributes#SERVICE_NAME} to tags with optional prefix.
+ *
+ * <p>Resource attributes can be projected with allow and deny lists, and renamed. As all spans in
+ * a {@link io.opentelemetry.proto.trace.v1.ResourceSpans} share the same resource,
+ * {@link #forResource(Resource)} computes the tags once and copies them onto each span.
  */
 public class DefaultOtelResourceMapper implements OtelResourceMapper {
 
@@ -22,6 +34,10 @@ public class DefaultOtelResourceMapper implements OtelResourceMapper {
 
   public static final class Builder {
     private String resourceAttributePrefix = "";
+    private boolean internStrings;
+    private List<String> resourceAttributeAllowList = Collections.emptyList();
+    private List<String> resourceAttributeDenyList = Collections.emptyList();
+    private Map<String, String> resourceAttributeRenames = Collections.emptyMap();
 
     /**
      * The prefix for tags mapped from resource attributes. Defaults to the empty string.
@@ -34,15 +50,71 @@ public class DefaultOtelResourceMapper implements OtelResourceMapper {
       return this;
     }
 
+    /**
+     * When true, tag keys and short values are interned in a fixed-size pool, so that spans
+     * queued for storage share instances instead of holding per-request copies. Defaults to false.
+     */
+    public Builder internStrings(boolean internStrings) {
+      this.internStrings = internStrings;
+      return this;
+    }
+
+    /**
+     * Resource attribute keys to map to tags. When empty, all keys are mapped unless denied.
+     * Defaults to empty.
+     *
+     * <p>Patterns can be exact keys like "host.name", prefixes like "k8s.*" or globs like
+     * "k8s.*.uid", and match the attribute key before any prefix or rename.
+     */
+    public Builder resourceAttributeAllowList(List<String> resourceAttributeAllowList) {
+      if (resourceAttributeAllowList == null) {
+        throw new NullPointerException("resourceAttributeAllowList == null");
+      }
+      this.resourceAttributeAllowList = resourceAttributeAllowList;
+      return this;
+    }
+
+    /**
+     * Resource attribute keys not to map to tags. These take precedence over
+     * {@link #resourceAttributeAllowList(List)}, and use the same pattern syntax. Defaults to
+     * empty.
+     */
+    public Builder resourceAttributeDenyList(List<String> resourceAttributeDenyList) {
+      if (resourceAttributeDenyList == null) {
+        throw new NullPointerException("resourceAttributeDenyList == null");
+      }
+      this.resourceAttributeDenyList = resourceAttributeDenyList;
+      return this;
+    }
+
+    /**
+     * Tag keys to use instead of resource attribute keys, ex. "k8s.pod.name" to "pod". Renamed
+     * keys are used as-is, without {@link #resourceAttributePrefix(String)}. Defaults to empty.
+     */
+    public Builder resourceAttributeRenames(Map<String, String> resourceAttributeRenames) {
+      if (resourceAttributeRenames == null) {
+        throw new NullPointerException("resourceAttributeRenames == null");
+      }
+      this.resourceAttributeRenames = new LinkedHashMap<>(resourceAttributeRenames);
+      return this;
+    }
+
     public DefaultOtelResourceMapper build() {
       return new DefaultOtelResourceMapper(this);
     }
   }
 
   private final String resourceAttributePrefix;
+  private final StringInterner stringInterner;
+  private final AttributeFilter attributeFilter;
+  private final Map<String, String> resourceAttributeRenames;
 
   private DefaultOtelResourceMapper(Builder builder) {
     this.resourceAttributePrefix = builder.resourceAttributePrefix;
+    this.stringInterner = builder.internStrings ? StringInterner.create() : StringInterner.NOOP;
+    this.attributeFilter = AttributeFilter.create(builder.resourceAttributeAllowList,
+        builder.resourceAttributeDenyList);
+    this.resourceAttributeRenames = builder.resourceAttributeRenames;
   }
 
   public String getResourceAttributePrefix() {
@@ -51,9 +123,49 @@ public class DefaultOtelResourceMapper implements OtelResourceMapper {
 
   @Override
   public void accept(Resource resource, Span.Builder builder) {
-    resource.getAttributesList().stream()
-        .filter(kv -> !kv.getKey().equals(SemanticConventionsAttributes.SERVICE_NAME))
-        .forEach(kv -> builder.putTag(resourceAttributePrefix + kv.getKey(),
-            ProtoUtils.valueToString(kv.getValue())));
+    putTags(tags(resource), builder);
+  }
+
+  @Override public Consumer<Span.Builder> forResource(Resource resource) {
+    String[] tags = tags(resource);
+    return builder -> putTags(tags, builder);
+  }
+
+  /**
+   * Like {@link #forResource(Resource)}, but cuts values longer than the tag value limits of the
+   * collector, as done for span attributes.
+   */
+  Consumer<Span.Builder> forResource(Resource resource, ValueLimits valueLimits,
+      OtelCollectorMetrics metrics) {
+    String[] tags = tags(resource, valueLimits, metrics);
+    return builder -> putTags(tags, builder);
+  }
+
+  static void putTags(String[] tags, Span.Builder builder) {
+    for (int i = 0; i < tags.length; i += 2) {
+      builder.putTag(tags[i], tags[i + 1]);
+    }
+  }
+
+  /** Returns alternating tag keys and values for the resource attributes to map. */
+  String[] tags(Resource resource) {
+    return tags(resource, ValueLimits.NONE, OtelCollectorMetrics.NOOP_METRICS);
+  }
+
+  String[] tags(Resource resource, ValueLimits valueLimits, OtelCollectorMetrics metrics) {
+    List<String> result = new ArrayList<>();
+    for (KeyValue kv : resource.getAttributesList()) {
+      String key = kv.getKey();
+      if (key.equals(SemanticConventionsAttributes.SERVICE_NAME)) continue;
+      if (attributeFilter.dropRule(key) != null) continue;
+      String tagKey = resourceAttributeRenames.get(key);
+      if (tagKey == null) tagKey = resourceAttributePrefix + key;
+      int maxLength = valueLimits.maxTagValueLength(tagKey);
+      String value = ProtoUtils.valueToString(kv.getValue(), maxLength);
+      if (value.length() > maxLength) metrics.incrementValuesTruncated(TruncatedValue.TAG);
+      result.add(stringInterner.intern(tagKey));
+      result.add(stringInterner.intern(value));
+    }
+    return result.toArray(new String[0]);
   }
 }
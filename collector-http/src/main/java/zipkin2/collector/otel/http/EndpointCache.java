@@ -0,0 +1,91 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.concurrent.ConcurrentHashMap;
+import zipkin2.Endpoint;
+import zipkin2.internal.Nullable;
+
+/**
+ * Interns {@link Endpoint} instances by the (service name, ip, port) tuple they were built from.
+ *
+ * <p>There are far fewer distinct endpoints than spans, so sharing instances avoids re-parsing the
+ * same IP literals and lower-casing the same service names for every span. It also reduces the
+ * retained size of spans queued for storage.
+ *
+ * <p>The cache is bounded: when a new tuple arrives after {@code maxSize} are cached, the cache is
+ * cleared first. Ports of client spans are usually ephemeral, so one-off tuples would otherwise
+ * fill the cache and disable it for services or IPs seen later. Clearing is cheap compared to
+ * tracking recency, and the tuples that repeat are cached again on their next use.
+ */
+final class EndpointCache {
+  static final int DEFAULT_MAX_SIZE = 1024;
+
+  final ConcurrentHashMap<Key, Endpoint> cache = new ConcurrentHashMap<>();
+  final int maxSize;
+
+  EndpointCache(int maxSize) {
+    if (maxSize < 0) throw new IllegalArgumentException("maxSize < 0");
+    this.maxSize = maxSize;
+  }
+
+  EndpointCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  /**
+   * Returns an endpoint equivalent to one built from the inputs.
+   *
+   * @param port zero when absent
+   */
+  Endpoint get(String serviceName, @Nullable String ip, int port) {
+    Key key = new Key(serviceName, ip, port);
+    Endpoint result = cache.get(key);
+    if (result != null) return result;
+    result = build(serviceName, ip, port); // exceptions, such as an invalid port, aren't cached
+    if (maxSize == 0) return result;
+    if (cache.size() >= maxSize) cache.clear();
+    Endpoint existing = cache.putIfAbsent(key, result);
+    return existing != null ? existing : result;
+  }
+
+  static Endpoint build(String serviceName, @Nullable String ip, int port) {
+    Endpoint.Builder endpoint = Endpoint.newBuilder().serviceName(serviceName);
+    if (ip != null) endpoint.ip(ip);
+    return endpoint.port(port).build();
+  }
+
+  static final class Key {
+    final String serviceName;
+    @Nullable final String ip;
+    final int port, hashCode;
+
+    Key(String serviceName, @Nullable String ip, int port) {
+      this.serviceName = serviceName;
+      this.ip = ip;
+      this.port = port;
+      int h = 1000003;
+      h ^= serviceName.hashCode();
+      h *= 1000003;
+      h ^= ip == null ? 0 : ip.hashCode();
+      h *= 1000003;
+      h ^= port;
+      this.hashCode = h;
+    }
+
+    @Override public boolean equals(Object o) {
+      if (o == this) return true;
+      if (!(o instanceof Key)) return false;
+      Key that = (Key) o;
+      return port == that.port
+          && serviceName.equals(that.serviceName)
+          && (ip == null ? that.ip == null : ip.equals(that.ip));
+    }
+
+    @Override public int hashCode() {
+      return hashCode;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+/** Allocation-free hashing of strings, for sketches that keep hashes instead of values. */
+final class Hashing {
+  static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L, FNV_PRIME = 0x100000001b3L;
+
+  /**
+   * Returns a 64-bit hash of the characters in the value. This is FNV-1a, followed by the
+   * MurmurHash3 finalizer so that the low and high bits are both well mixed.
+   */
+  static long hash64(CharSequence value) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0, length = value.length(); i < length; i++) {
+      hash ^= value.charAt(i);
+      hash *= FNV_PRIME;
+    }
+    return mix64(hash);
+  }
+
+  static long mix64(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estimates the keys with the most spans over a sliding window, with the Space-Saving algorithm.
+ *
+ * <p>The window is split into {@value #BUCKET_COUNT} buckets of {@link #BUCKET_NANOS}. Each holds
+ * at most {@link #capacity} counters, so memory is fixed no matter how many keys are seen. When a
+ * bucket is full, a new key replaces the key with the fewest spans and inherits its counts. This
+ * means a count can be too high by at most its error, but any key with more spans than
+ * 1/capacity of a bucket is never evicted.
+ *
+ * <p>Each bucket is guarded by its own lock. Counters are also kept in a min-heap by spans, which
+ * indexes each counter by its position. Finding the counter to replace is constant time, and
+ * adding to a counter is logarithmic in {@link #capacity}.
+ */
+final class HeavyHitters<K> {
+  static final int BUCKET_COUNT = 6;
+  static final long BUCKET_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+  final int capacity;
+  final Bucket<K>[] buckets;
+
+  @SuppressWarnings("unchecked")
+  HeavyHitters(int capacity) {
+    if (capacity <= 0) throw new IllegalArgumentException("capacity <= 0");
+    this.capacity = capacity;
+    this.buckets = new Bucket[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) buckets[i] = new Bucket<>(capacity);
+  }
+
+  /**
+   * Adds the counts of one request to the bucket for the current time.
+   *
+   * @param counts spans at index 0 and bytes at index 1, per key
+   */
+  void add(long nanoTime, Map<K, long[]> counts) {
+    long epoch = Math.floorDiv(nanoTime, BUCKET_NANOS);
+    Bucket<K> bucket = buckets[(int) Math.floorMod(epoch, (long) BUCKET_COUNT)];
+    synchronized (bucket) {
+      if (bucket.epoch != epoch) bucket.reset(epoch);
+      counts.forEach((key, count) -> bucket.add(key, count[0], count[1]));
+    }
+  }
+
+  /** Returns up to {@code limit} keys with the most spans in the window, most first. */
+  List<Counter<K>> top(long nanoTime, int limit) {
+    if (limit < 0) throw new IllegalArgumentException("limit < 0");
+    long epoch = Math.floorDiv(nanoTime, BUCKET_NANOS);
+    Map<K, Counter<K>> merged = new HashMap<>();
+    for (Bucket<K> bucket : buckets) {
+      synchronized (bucket) {
+        if (bucket.epoch <= epoch - BUCKET_COUNT || bucket.epoch > epoch) continue;
+        for (Counter<K> counter : bucket.counters.values()) {
+          merged.computeIfAbsent(counter.key, Counter::new).merge(counter);
+        }
+      }
+    }
+    List<Counter<K>> result = new ArrayList<>(merged.values());
+    result.sort(Comparator.comparingLong((Counter<K> c) -> c.spans).reversed());
+    return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+  }
+
+  @Override public String toString() {
+    return "HeavyHitters{capacity=" + capacity + "}";
+  }
+
+  static final class Bucket<K> {
+    final int capacity;
+    final Map<K, Counter<K>> counters;
+    /** Min-heap of {@link #counters} by spans, where each is at its {@link Counter#index}. */
+    final Counter<K>[] heap;
+    long epoch = Long.MIN_VALUE;
+
+    @SuppressWarnings("unchecked")
+    Bucket(int capacity) {
+      this.capacity = capacity;
+      this.counters = new HashMap<>(capacity * 2);
+      this.heap = new Counter[capacity];
+    }
+
+    void reset(long epoch) {
+      this.epoch = epoch;
+      Arrays.fill(heap, 0, counters.size(), null);
+      counters.clear();
+    }
+
+    void add(K key, long spans, long bytes) {
+      Counter<K> counter = counters.get(key);
+      if (counter == null && counters.size() < capacity) {
+        counter = new Counter<>(key);
+        counter.spans = spans;
+        counter.bytes = bytes;
+        counters.put(key, counter);
+        siftUp(counters.size() - 1, counter);
+        return;
+      }
+      if (counter == null) {
+        counter = evictMin();
+        counter.key = key;
+        counters.put(key, counter);
+      }
+      counter.spans += spans;
+      counter.bytes += bytes;
+      siftDown(counter.index, counter);
+    }
+
+    /** Removes the counter with the fewest spans, keeping its counts as the error of the next. */
+    Counter<K> evictMin() {
+      Counter<K> min = heap[0];
+      counters.remove(min.key);
+      min.spansError = min.spans;
+      min.bytesError = min.bytes;
+      return min;
+    }
+
+    /** Places a new counter at {@code index}, then moves it up past any with more spans. */
+    void siftUp(int index, Counter<K> counter) {
+      while (index > 0) {
+        int parent = (index - 1) >>> 1;
+        if (heap[parent].spans <= counter.spans) break;
+        move(heap[parent], index);
+        index = parent;
+      }
+      move(counter, index);
+    }
+
+    /** Moves a counter at {@code index} down past any with fewer spans, after its spans grew. */
+    void siftDown(int index, Counter<K> counter) {
+      int size = counters.size();
+      for (int child; (child = 2 * index + 1) < size; index = child) {
+        if (child + 1 < size && heap[child + 1].spans < heap[child].spans) child++;
+        if (counter.spans <= heap[child].spans) break;
+        move(heap[child], index);
+      }
+      move(counter, index);
+    }
+
+    void move(Counter<K> counter, int index) {
+      heap[index] = counter;
+      counter.index = index;
+    }
+  }
+
+  static final class Counter<K> {
+    K key;
+    long spans, bytes, spansError, bytesError;
+    /** Position in {@link Bucket#heap}, unused once merged by {@link #top}. */
+    int index;
+
+    Counter(K key) {
+      this.key = key;
+    }
+
+    void merge(Counter<K> that) {
+      spans += that.spans;
+      bytes += that.bytes;
+      spansError += that.spansError;
+      bytesError += that.bytesError;
+    }
+  }
+}
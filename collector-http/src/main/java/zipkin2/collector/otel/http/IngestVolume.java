@@ -0,0 +1,66 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import zipkin2.internal.Nullable;
+
+/**
+ * Estimated spans and bytes received for a service, or a span name of a service, over the last
+ * minute. Bytes are the protobuf size of the spans and their resources, whichever the encoding
+ * of the request.
+ *
+ * <p>Counts are upper bounds: each may be too high by at most its error.
+ *
+ * @see OpenTelemetryHttpCollector#topServicesByVolume(int)
+ */
+public final class IngestVolume {
+  final String serviceName;
+  @Nullable final String spanName;
+  final long spans, bytes, spansError, bytesError;
+
+  IngestVolume(String serviceName, @Nullable String spanName, long spans, long bytes,
+      long spansError, long bytesError) {
+    this.serviceName = serviceName;
+    this.spanName = spanName;
+    this.spans = spans;
+    this.bytes = bytes;
+    this.spansError = spansError;
+    this.bytesError = bytesError;
+  }
+
+  /** The resource attribute "service.name", or "unknown_service" if there was none. */
+  public String serviceName() {
+    return serviceName;
+  }
+
+  /** The span name, or null if this is the volume of the whole service. */
+  @Nullable public String spanName() {
+    return spanName;
+  }
+
+  public long spans() {
+    return spans;
+  }
+
+  public long bytes() {
+    return bytes;
+  }
+
+  /** How much {@link #spans()} may be overestimated. */
+  public long spansError() {
+    return spansError;
+  }
+
+  /** How much {@link #bytes()} may be overestimated. */
+  public long bytesError() {
+    return bytesError;
+  }
+
+  @Override public String toString() {
+    return "IngestVolume{serviceName=" + serviceName
+        + (spanName != null ? ", spanName=" + spanName : "")
+        + ", spans=" + spans + ", bytes=" + bytes + "}";
+  }
+}
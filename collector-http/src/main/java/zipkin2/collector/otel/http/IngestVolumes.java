@@ -0,0 +1,120 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.proto.common.v1.KeyValue;
+import io.opentelemetry.proto.resource.v1.Resource;
+import io.opentelemetry.proto.trace.v1.ResourceSpans;
+import io.opentelemetry.proto.trace.v1.ScopeSpans;
+import io.opentelemetry.proto.trace.v1.Span;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the services and span names sending the most spans, with a {@link HeavyHitters} sketch
+ * for each.
+ */
+final class IngestVolumes {
+  static final IngestVolumes NOOP = new IngestVolumes(null, null);
+
+  static final String UNKNOWN_SERVICE = "unknown_service";
+
+  static IngestVolumes create(int capacity) {
+    if (capacity < 0) throw new IllegalArgumentException("capacity < 0");
+    if (capacity == 0) return NOOP;
+    return new IngestVolumes(new HeavyHitters<>(capacity), new HeavyHitters<>(capacity));
+  }
+
+  final HeavyHitters<String> services;
+  final HeavyHitters<ServiceSpanName> spanNames;
+
+  IngestVolumes(HeavyHitters<String> services, HeavyHitters<ServiceSpanName> spanNames) {
+    this.services = services;
+    this.spanNames = spanNames;
+  }
+
+  void record(ExportTraceServiceRequest request, long nanoTime) {
+    if (this == NOOP) return;
+    // Counted per request first, so that each sketch is locked once.
+    Map<String, long[]> serviceCounts = new HashMap<>();
+    Map<ServiceSpanName, long[]> spanNameCounts = new HashMap<>();
+    for (ResourceSpans resourceSpans : request.getResourceSpansList()) {
+      String serviceName = serviceName(resourceSpans.getResource());
+      long spans = 0;
+      for (ScopeSpans scopeSpans : resourceSpans.getScopeSpansList()) {
+        for (Span span : scopeSpans.getSpansList()) {
+          spans++;
+          long[] counts = spanNameCounts.computeIfAbsent(
+              new ServiceSpanName(serviceName, span.getName()), k -> new long[2]);
+          counts[0]++;
+          counts[1] += span.getSerializedSize();
+        }
+      }
+      long[] counts = serviceCounts.computeIfAbsent(serviceName, k -> new long[2]);
+      counts[0] += spans;
+      counts[1] += resourceSpans.getSerializedSize();
+    }
+    services.add(nanoTime, serviceCounts);
+    spanNames.add(nanoTime, spanNameCounts);
+  }
+
+  List<IngestVolume> topServices(long nanoTime, int limit) {
+    if (limit < 0) throw new IllegalArgumentException("limit < 0");
+    if (this == NOOP) return Collections.emptyList();
+    List<IngestVolume> result = new ArrayList<>();
+    for (HeavyHitters.Counter<String> c : services.top(nanoTime, limit)) {
+      result.add(new IngestVolume(c.key, null, c.spans, c.bytes, c.spansError, c.bytesError));
+    }
+    return result;
+  }
+
+  List<IngestVolume> topSpanNames(long nanoTime, int limit) {
+    if (limit < 0) throw new IllegalArgumentException("limit < 0");
+    if (this == NOOP) return Collections.emptyList();
+    List<IngestVolume> result = new ArrayList<>();
+    for (HeavyHitters.Counter<ServiceSpanName> c : spanNames.top(nanoTime, limit)) {
+      result.add(new IngestVolume(c.key.serviceName, c.key.spanName, c.spans, c.bytes,
+          c.spansError, c.bytesError));
+    }
+    return result;
+  }
+
+  static String serviceName(Resource resource) {
+    for (KeyValue attribute : resource.getAttributesList()) {
+      if (attribute.getKey().equals(SemanticConventionsAttributes.SERVICE_NAME)) {
+        return attribute.getValue().getStringValue();
+      }
+    }
+    return UNKNOWN_SERVICE;
+  }
+
+  @Override public String toString() {
+    return "IngestVolumes{" + services + "}";
+  }
+
+  static final class ServiceSpanName {
+    final String serviceName, spanName;
+
+    ServiceSpanName(String serviceName, String spanName) {
+      this.serviceName = serviceName;
+      this.spanName = spanName;
+    }
+
+    @Override public boolean equals(Object o) {
+      if (o == this) return true;
+      if (!(o instanceof ServiceSpanName)) return false;
+      ServiceSpanName that = (ServiceSpanName) o;
+      return serviceName.equals(that.serviceName) && spanName.equals(that.spanName);
+    }
+
+    @Override public int hashCode() {
+      return serviceName.hashCode() * 31 + spanName.hashCode();
+    }
+  }
+}
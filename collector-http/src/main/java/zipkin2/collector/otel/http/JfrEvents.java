@@ -0,0 +1,48 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Encoding;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Signal;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Stage;
+import zipkin2.internal.Nullable;
+
+/**
+ * Emits JDK Flight Recorder events for each request and its stages, so that continuous recordings
+ * show slow requests next to GC and allocation data.
+ *
+ * <p>JFR isn't available on Java 8, so this version does nothing. The jar is multi-release, and
+ * Java 11+ loads the version in {@code src/main/java11}, which must keep the same signatures.
+ * Events are passed as {@link Object} so that these signatures don't reference {@code jdk.jfr}.
+ * {@code ITJfrEvents} tests the Java 11+ version, as only integration tests use the packaged jar.
+ */
+final class JfrEvents {
+
+  /** Returns a started stage event, or null if events aren't recorded. */
+  @Nullable static Object beginStage() {
+    return null;
+  }
+
+  /** Commits the event returned by {@link #beginStage()}, if it should be recorded. */
+  static void endStage(@Nullable Object event, Signal signal, Encoding encoding, Stage stage) {
+  }
+
+  /** Returns a started request event, or null if events aren't recorded. */
+  @Nullable static Object beginRequest() {
+    return null;
+  }
+
+  /**
+   * Commits the event returned by {@link #beginRequest()}, if it should be recorded.
+   *
+   * @param outcome "accepted", or the simple name of the exception that failed the request
+   */
+  static void endRequest(@Nullable Object event, Signal signal, Encoding encoding, long bytes,
+      int spans, String outcome) {
+  }
+
+  JfrEvents() {
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import com.google.protobuf.ByteString;
+import io.opentelemetry.proto.common.v1.AnyValue;
+import io.opentelemetry.proto.common.v1.KeyValue;
+import java.util.List;
+
+/**
+ * Writes OpenTelemetry {@link AnyValue} and {@link KeyValue} lists as JSON into a single
+ * {@link StringBuilder}, escaping strings in one pass.
+ *
+ * <p>Use {@link #buffer()} to get a reusable builder for the current thread. The write methods
+ * only append to the builder they are passed, so they never contend for that buffer.
+ */
+final class JsonWriter {
+  /** Values nested deeper than this are written as {@link #TRUNCATED}. */
+  static final int MAX_DEPTH = 32;
+
+  /** Placeholder for values that are not written in full. */
+  static final String TRUNCATED = "...";
+
+  /** Don't retain huge buffers after writing an unusually large value. */
+  static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+  static final ThreadLocal<StringBuilder> BUFFER =
+      ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+  static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  static final char[] BASE64 =
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+  /** Returns an empty builder, reused by the current thread. */
+  static StringBuilder buffer() {
+    StringBuilder result = BUFFER.get();
+    if (result.capacity() > MAX_RETAINED_CAPACITY) {
+      result = new StringBuilder(256);
+      BUFFER.set(result);
+    }
+    result.setLength(0);
+    return result;
+  }
+
+  static void writeKeyValues(StringBuilder json, List<KeyValue> keyValues) {
+    writeKeyValues(json, keyValues, 0, Integer.MAX_VALUE);
+  }
+
+  static void writeValue(StringBuilder json, AnyValue value) {
+    writeValue(json, value, 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns the limit to pass to the write methods, so that the output is longer than
+   * {@code maxLength} if, and only if, something was cut.
+   */
+  static int writeLimit(int maxLength) {
+    return maxLength == Integer.MAX_VALUE ? maxLength : maxLength + 1;
+  }
+
+  /**
+   * Writes the key values, stopping once the builder has at least {@code limit} characters. Output
+   * that was stopped is not valid JSON, and is expected to be truncated by the caller.
+   */
+  static void writeKeyValues(StringBuilder json, List<KeyValue> keyValues, int depth, int limit) {
+    if (depth > MAX_DEPTH) {
+      writeString(json, TRUNCATED);
+      return;
+    }
+    json.append('{');
+    for (int i = 0, length = keyValues.size(); i < length; i++) {
+      if (json.length() >= limit) return;
+      if (i > 0) json.append(',');
+      KeyValue keyValue = keyValues.get(i);
+      writeString(json, keyValue.getKey(), limit);
+      json.append(':');
+      writeValue(json, keyValue.getValue(), depth + 1, limit);
+    }
+    json.append('}');
+  }
+
+  static void writeValue(StringBuilder json, AnyValue value, int depth, int limit) {
+    switch (value.getValueCase()) {
+      case STRING_VALUE:
+        writeString(json, value.getStringValue(), limit);
+        return;
+      case BOOL_VALUE:
+        json.append(value.getBoolValue());
+        return;
+      case INT_VALUE:
+        json.append(value.getIntValue());
+        return;
+      case DOUBLE_VALUE:
+        double doubleValue = value.getDoubleValue();
+        if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+          writeString(json, String.valueOf(doubleValue)); // not valid as a JSON number
+        } else {
+          json.append(doubleValue);
+        }
+        return;
+      case ARRAY_VALUE:
+        if (depth > MAX_DEPTH) {
+          writeString(json, TRUNCATED);
+          return;
+        }
+        List<AnyValue> values = value.getArrayValue().getValuesList();
+        json.append('[');
+        for (int i = 0, length = values.size(); i < length; i++) {
+          if (json.length() >= limit) return;
+          if (i > 0) json.append(',');
+          writeValue(json, values.get(i), depth + 1, limit);
+        }
+        json.append(']');
+        return;
+      case KVLIST_VALUE:
+        writeKeyValues(json, value.getKvlistValue().getValuesList(), depth, limit);
+        return;
+      case BYTES_VALUE:
+        writeBase64(json, value.getBytesValue(), limit);
+        return;
+      default: // unset
+        json.append("\"\"");
+    }
+  }
+
+  /** Writes a quoted string, escaping per RFC 8259. */
+  static void writeString(StringBuilder json, String value) {
+    writeString(json, value, Integer.MAX_VALUE);
+  }
+
+  /** Like {@link #writeString(StringBuilder, String)}, but stops copying at {@code limit}. */
+  static void writeString(StringBuilder json, String value, int limit) {
+    json.append('"');
+    int start = 0, length = value.length(), room = limit - json.length();
+    if (room < length) length = Math.max(0, room);
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      String replacement;
+      if (c == '"') {
+        replacement = "\\\"";
+      } else if (c == '\\') {
+        replacement = "\\\\";
+      } else if (c >= 0x20) {
+        continue;
+      } else if (c == '\n') {
+        replacement = "\\n";
+      } else if (c == '\r') {
+        replacement = "\\r";
+      } else if (c == '\t') {
+        replacement = "\\t";
+      } else if (c == '\b') {
+        replacement = "\\b";
+      } else if (c == '\f') {
+        replacement = "\\f";
+      } else {
+        replacement = null;
+      }
+      json.append(value, start, i);
+      if (replacement != null) {
+        json.append(replacement);
+      } else {
+        json.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xf]);
+      }
+      start = i + 1;
+    }
+    json.append(value, start, length).append('"');
+  }
+
+  /** Writes quoted, padded base64 without copying the bytes. */
+  static void writeBase64(StringBuilder json, ByteString bytes) {
+    writeBase64(json, bytes, Integer.MAX_VALUE);
+  }
+
+  /** Like {@link #writeBase64(StringBuilder, ByteString)}, but stops encoding at {@code limit}. */
+  static void writeBase64(StringBuilder json, ByteString bytes, int limit) {
+    json.append('"');
+    int length = bytes.size(), i = 0;
+    for (; i + 2 < length; i += 3) {
+      if (json.length() >= limit) return;
+      int chunk = (bytes.byteAt(i) & 0xff) << 16
+          | (bytes.byteAt(i + 1) & 0xff) << 8
+          | (bytes.byteAt(i + 2) & 0xff);
+      json.append(BASE64[chunk >>> 18])
+          .append(BASE64[(chunk >>> 12) & 0x3f])
+          .append(BASE64[(chunk >>> 6) & 0x3f])
+          .append(BASE64[chunk & 0x3f]);
+    }
+    int remaining = length - i;
+    if (remaining == 1) {
+      int chunk = (bytes.byteAt(i) & 0xff) << 16;
+      json.append(BASE64[chunk >>> 18]).append(BASE64[(chunk >>> 12) & 0x3f]).append("==");
+    } else if (remaining == 2) {
+      int chunk = (bytes.byteAt(i) & 0xff) << 16 | (bytes.byteAt(i + 1) & 0xff) << 8;
+      json.append(BASE64[chunk >>> 18])
+          .append(BASE64[(chunk >>> 12) & 0x3f])
+          .append(BASE64[(chunk >>> 6) & 0x3f])
+          .append('=');
+    }
+    json.append('"');
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import zipkin2.internal.Nullable;
+
+/**
+ * Matches keys, such as attribute keys or event names, against patterns compiled once. Empty
+ * patterns are ignored.
+ *
+ * <p>Patterns are interpreted as follows:
+ * <ul>
+ *   <li>{@code thread.id} matches only that key</li>
+ *   <li>{@code code.*} matches keys starting with "code." (a single trailing {@code *} is a
+ *   prefix)</li>
+ *   <li>{@code http.*.header.*} is a glob: {@code *} matches any characters and {@code ?} one</li>
+ * </ul>
+ *
+ * <p>Exact patterns are a hash lookup and prefixes a scan of {@link String#startsWith}. Regular
+ * expressions are only used for globs.
+ */
+final class KeyMatcher {
+  static final KeyMatcher EMPTY = new KeyMatcher(new HashSet<>(), new String[0], new String[0],
+      new Pattern[0]);
+
+  static KeyMatcher compile(@Nullable Collection<String> patterns) {
+    if (patterns == null || patterns.isEmpty()) return EMPTY;
+    Set<String> exact = new HashSet<>();
+    List<String> prefixes = new ArrayList<>();
+    List<String> globs = new ArrayList<>();
+    for (String pattern : patterns) {
+      if (pattern == null) throw new NullPointerException("pattern == null");
+      if (pattern.isEmpty()) continue;
+      int firstWildcard = indexOfWildcard(pattern);
+      if (firstWildcard == -1) {
+        exact.add(pattern);
+      } else if (firstWildcard == pattern.length() - 1 && pattern.charAt(firstWildcard) == '*') {
+        prefixes.add(pattern);
+      } else {
+        globs.add(pattern);
+      }
+    }
+    Pattern[] compiledGlobs = new Pattern[globs.size()];
+    for (int i = 0; i < compiledGlobs.length; i++) {
+      compiledGlobs[i] = globToRegex(globs.get(i));
+    }
+    return new KeyMatcher(exact, prefixes.toArray(new String[0]), globs.toArray(new String[0]),
+        compiledGlobs);
+  }
+
+  final Set<String> exact;
+  final String[] prefixPatterns, globPatterns;
+  final Pattern[] globs;
+
+  KeyMatcher(Set<String> exact, String[] prefixPatterns, String[] globPatterns, Pattern[] globs) {
+    this.exact = exact;
+    this.prefixPatterns = prefixPatterns;
+    this.globPatterns = globPatterns;
+    this.globs = globs;
+  }
+
+  boolean isEmpty() {
+    return exact.isEmpty() && prefixPatterns.length == 0 && globs.length == 0;
+  }
+
+  /** Returns the first pattern that matches the key, or null if none do. */
+  @Nullable String match(String key) {
+    if (exact.contains(key)) return key;
+    for (String prefixPattern : prefixPatterns) {
+      if (key.regionMatches(0, prefixPattern, 0, prefixPattern.length() - 1)) {
+        return prefixPattern;
+      }
+    }
+    for (int i = 0; i < globs.length; i++) {
+      if (globs[i].matcher(key).matches()) return globPatterns[i];
+    }
+    return null;
+  }
+
+  static int indexOfWildcard(String pattern) {
+    for (int i = 0; i < pattern.length(); i++) {
+      char c = pattern.charAt(i);
+      if (c == '*' || c == '?') return i;
+    }
+    return -1;
+  }
+
+  static Pattern globToRegex(String glob) {
+    StringBuilder regex = new StringBuilder();
+    int literalStart = 0;
+    for (int i = 0; i < glob.length(); i++) {
+      char c = glob.charAt(i);
+      if (c != '*' && c != '?') continue;
+      if (i > literalStart) regex.append(Pattern.quote(glob.substring(literalStart, i)));
+      regex.append(c == '*' ? ".*" : ".");
+      literalStart = i + 1;
+    }
+    if (literalStart < glob.length()) regex.append(Pattern.quote(glob.substring(literalStart)));
+    return Pattern.compile(regex.toString(), Pattern.DOTALL);
+  }
+
+  @Override public String toString() {
+    List<String> patterns = new ArrayList<>(exact);
+    for (String prefixPattern : prefixPatterns) patterns.add(prefixPattern);
+    for (String globPattern : globPatterns) patterns.add(globPattern);
+    return patterns.toString();
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
+import io.opentelemetry.proto.collector.logs.v1.ExportLogsServiceRequest;
+import io.opentelemetry.proto.common.v1.InstrumentationScope;
+import io.opentelemetry.proto.logs.v1.LogRecord;
+import io.opentelemetry.proto.logs.v1.ResourceLogs;
+import io.opentelemetry.proto.logs.v1.ScopeLogs;
+import io.opentelemetry.proto.resource.v1.Resource;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Decodes a protobuf {@link ExportLogsServiceRequest}, keeping only log records that
+ * {@link LogEventTranslator} can convert: those with a trace ID, a span ID and an "event.name"
+ * attribute.
+ *
+ * <p>Most log records are not events, and their bodies can be large. This scans each record's
+ * tags at the wire level, skipping over the body and attribute values, and only parses records
+ * that pass. Resource and scope are parsed as usual, but resources and scopes left without
+ * records are omitted.
+ *
+ * <p>Field numbers are those in opentelemetry/proto/logs/v1/logs.proto.
+ */
+final class LogEventDecoder {
+  // ExportLogsServiceRequest
+  static final int RESOURCE_LOGS = lengthDelimited(1);
+  // ResourceLogs
+  static final int RESOURCE = lengthDelimited(1), SCOPE_LOGS = lengthDelimited(2);
+  // ResourceLogs and ScopeLogs
+  static final int SCHEMA_URL = lengthDelimited(3);
+  // ScopeLogs
+  static final int SCOPE = lengthDelimited(1), LOG_RECORDS = lengthDelimited(2);
+  // LogRecord
+  static final int ATTRIBUTES = lengthDelimited(6), TRACE_ID = lengthDelimited(9),
+      SPAN_ID = lengthDelimited(10);
+  // KeyValue
+  static final int KEY = lengthDelimited(1);
+
+  static final byte[] EVENT_NAME =
+      SemanticConventionsAttributes.EVENT_NAME.getBytes(StandardCharsets.UTF_8);
+
+  static ExportLogsServiceRequest decode(ByteBuffer buffer) throws IOException {
+    ExportLogsServiceRequest.Builder request = ExportLogsServiceRequest.newBuilder();
+    CodedInputStream input = CodedInputStream.newInstance(buffer);
+    for (int tag; (tag = input.readTag()) != 0; ) {
+      if (tag == RESOURCE_LOGS) {
+        ResourceLogs resourceLogs = decodeResourceLogs(readMessage(input, buffer));
+        if (resourceLogs != null) request.addResourceLogs(resourceLogs);
+      } else {
+        input.skipField(tag);
+      }
+    }
+    return request.build();
+  }
+
+  /** Returns null if no log record in these resource logs is an event. */
+  static ResourceLogs decodeResourceLogs(ByteBuffer buffer) throws IOException {
+    ResourceLogs.Builder resourceLogs = null;
+    Resource resource = null;
+    String schemaUrl = null;
+    CodedInputStream input = CodedInputStream.newInstance(buffer);
+    for (int tag; (tag = input.readTag()) != 0; ) {
+      if (tag == RESOURCE) {
+        resource = Resource.parseFrom(readMessage(input, buffer));
+      } else if (tag == SCOPE_LOGS) {
+        ScopeLogs scopeLogs = decodeScopeLogs(readMessage(input, buffer));
+        if (scopeLogs == null) continue;
+        if (resourceLogs == null) resourceLogs = ResourceLogs.newBuilder();
+        resourceLogs.addScopeLogs(scopeLogs);
+      } else if (tag == SCHEMA_URL) {
+        schemaUrl = input.readStringRequireUtf8();
+      } else {
+        input.skipField(tag);
+      }
+    }
+    if (resourceLogs == null) return null;
+    if (resource != null) resourceLogs.setResource(resource);
+    if (schemaUrl != null) resourceLogs.setSchemaUrl(schemaUrl);
+    return resourceLogs.build();
+  }
+
+  /** Returns null if no log record in these scope logs is an event. */
+  static ScopeLogs decodeScopeLogs(ByteBuffer buffer) throws IOException {
+    ScopeLogs.Builder scopeLogs = null;
+    InstrumentationScope scope = null;
+    String schemaUrl = null;
+    CodedInputStream input = CodedInputStream.newInstance(buffer);
+    for (int tag; (tag = input.readTag()) != 0; ) {
+      if (tag == SCOPE) {
+        scope = InstrumentationScope.parseFrom(readMessage(input, buffer));
+      } else if (tag == LOG_RECORDS) {
+        ByteBuffer logRecord = readMessage(input, buffer);
+        if (!isEvent(logRecord)) continue;
+        if (scopeLogs == null) scopeLogs = ScopeLogs.newBuilder();
+        scopeLogs.addLogRecords(LogRecord.parseFrom(logRecord));
+      } else if (tag == SCHEMA_URL) {
+        schemaUrl = input.readStringRequireUtf8();
+      } else {
+        input.skipField(tag);
+      }
+    }
+    if (scopeLogs == null) return null;
+    if (scope != null) scopeLogs.setScope(scope);
+    if (schemaUrl != null) scopeLogs.setSchemaUrl(schemaUrl);
+    return scopeLogs.build();
+  }
+
+  /** Returns true if the log record has a trace ID, a span ID and an "event.name" attribute. */
+  static boolean isEvent(ByteBuffer logRecord) throws IOException {
+    boolean hasTraceId = false, hasSpanId = false, hasEventName = false;
+    CodedInputStream input = CodedInputStream.newInstance(logRecord.duplicate());
+    for (int tag; (tag = input.readTag()) != 0; ) {
+      if (tag == TRACE_ID) {
+        int length = input.readRawVarint32();
+        input.skipRawBytes(length);
+        hasTraceId = length > 0; // the last value wins, as when parsed
+      } else if (tag == SPAN_ID) {
+        int length = input.readRawVarint32();
+        input.skipRawBytes(length);
+        hasSpanId = length > 0;
+      } else if (tag == ATTRIBUTES && !hasEventName) {
+        int length = input.readRawVarint32(), oldLimit = input.pushLimit(length);
+        hasEventName = isEventName(input);
+        input.skipRawBytes(input.getBytesUntilLimit());
+        input.popLimit(oldLimit);
+      } else {
+        input.skipField(tag);
+      }
+    }
+    return hasTraceId && hasSpanId && hasEventName;
+  }
+
+  /** Reads the key of a KeyValue, skipping its value. */
+  static boolean isEventName(CodedInputStream input) throws IOException {
+    for (int tag; (tag = input.readTag()) != 0; ) {
+      if (tag != KEY) {
+        input.skipField(tag);
+        continue;
+      }
+      int length = input.readRawVarint32();
+      if (length != EVENT_NAME.length) {
+        input.skipRawBytes(length);
+        continue;
+      }
+      if (Arrays.equals(input.readRawBytes(length), EVENT_NAME)) return true;
+    }
+    return false;
+  }
+
+  /** Reads a length-delimited field as a view of the buffer, without copying it. */
+  static ByteBuffer readMessage(CodedInputStream input, ByteBuffer buffer) throws IOException {
+    int length = input.readRawVarint32();
+    int start = buffer.position() + input.getTotalBytesRead();
+    input.skipRawBytes(length); // throws if truncated
+    ByteBuffer message = buffer.duplicate();
+    // Buffer casts avoid the covariant overrides added in JDK 9, which don't exist in JDK 8.
+    ((Buffer) message).limit(start + length);
+    ((Buffer) message).position(start);
+    return message.slice();
+  }
+
+  static int lengthDelimited(int fieldNumber) {
+    return fieldNumber << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+  }
+
+  LogEventDecoder() {
+  }
+}
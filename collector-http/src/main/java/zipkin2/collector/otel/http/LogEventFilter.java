@@ -0,0 +1,86 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.LogEventDropped;
+import zipkin2.internal.Nullable;
+
+/**
+ * Decides which log events become annotations, by severity, by event name and by sampling rate.
+ * Decisions are made before the event body is converted to JSON.
+ *
+ * <p>Event names are matched with an {@link AttributeFilter}, so the same pattern syntax applies.
+ * Sampling is by trace ID, like {@link zipkin2.collector.CollectorSampler}, so events of one trace
+ * are either all kept or all dropped.
+ */
+final class LogEventFilter {
+  static final LogEventFilter ALLOW_ALL =
+      new LogEventFilter(0, AttributeFilter.ALLOW_ALL, Collections.emptyMap());
+
+  /**
+   * @param minSeverity the minimum severity number, ex. 9 for INFO. Zero keeps all events.
+   * @param sampleRates the rate in [0, 1] at which to keep events with the given names
+   */
+  static LogEventFilter create(int minSeverity, @Nullable Collection<String> allowList,
+      @Nullable Collection<String> denyList, Map<String, Float> sampleRates) {
+    if (minSeverity < 0) throw new IllegalArgumentException("minSeverity < 0");
+    AttributeFilter names = AttributeFilter.create(allowList, denyList);
+    if (minSeverity == 0 && names == AttributeFilter.ALLOW_ALL && sampleRates.isEmpty()) {
+      return ALLOW_ALL;
+    }
+    Map<String, Long> boundaries = new HashMap<>();
+    sampleRates.forEach((name, rate) -> {
+      if (rate == null || !(rate >= 0 && rate <= 1)) { // also rejects NaN
+        throw new IllegalArgumentException(
+            "sample rate for " + name + " should be between 0 and 1");
+      }
+      // Same as CollectorSampler: keep when the absolute trace ID is at or below the boundary.
+      boundaries.put(name, (long) (Long.MAX_VALUE * rate));
+    });
+    return new LogEventFilter(minSeverity, names, boundaries);
+  }
+
+  final int minSeverity;
+  final AttributeFilter names;
+  final Map<String, Long> boundaries;
+
+  LogEventFilter(int minSeverity, AttributeFilter names, Map<String, Long> boundaries) {
+    this.minSeverity = minSeverity;
+    this.names = names;
+    this.boundaries = boundaries;
+  }
+
+  /** Returns true if the severity is set and is below the minimum. Unspecified severity is kept. */
+  boolean isBelowMinSeverity(int severityNumber) {
+    return severityNumber != 0 && severityNumber < minSeverity;
+  }
+
+  /**
+   * Returns null if the event should be kept, or why it should be dropped.
+   *
+   * @param traceIdLow the lower 64 bits of the trace ID
+   */
+  @Nullable LogEventDropped dropReason(String eventName, long traceIdLow) {
+    if (this == ALLOW_ALL) return null;
+    String rule = names.dropRule(eventName);
+    if (rule != null) {
+      return rule == AttributeFilter.NOT_ALLOWED ? LogEventDropped.NOT_ALLOWED
+          : LogEventDropped.DENIED;
+    }
+    Long boundary = boundaries.get(eventName);
+    if (boundary == null) return null;
+    // Math.abs(Long.MIN_VALUE) is negative, so treat it as the largest value.
+    long t = traceIdLow == Long.MIN_VALUE ? Long.MAX_VALUE : Math.abs(traceIdLow);
+    return t <= boundary ? null : LogEventDropped.SAMPLED;
+  }
+
+  @Override public String toString() {
+    return "LogEventFilter{minSeverity=" + minSeverity + ", names=" + names + "}";
+  }
+}
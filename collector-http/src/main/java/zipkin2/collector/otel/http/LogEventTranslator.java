@@ -4,22 +4,28 @@
  */
 package zipkin2.collector.otel.http;
 
+import com.google.protobuf.ByteString;
 import io.opentelemetry.proto.collector.logs.v1.ExportLogsServiceRequest;
-import io.opentelemetry.proto.common.v1.AnyValue;
 import io.opentelemetry.proto.common.v1.KeyValue;
-import io.opentelemetry.proto.common.v1.KeyValueList;
 import io.opentelemetry.proto.logs.v1.LogRecord;
 import io.opentelemetry.proto.logs.v1.ResourceLogs;
 import io.opentelemetry.proto.logs.v1.ScopeLogs;
 import io.opentelemetry.proto.logs.v1.SeverityNumber;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import zipkin2.Span;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.LogEventDropped;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.TruncatedValue;
 import zipkin2.internal.Nullable;
 
+import static zipkin2.collector.otel.http.SpanTranslator.SPAN_ID_LENGTH;
+import static zipkin2.collector.otel.http.SpanTranslator.TRACE_ID_LENGTH;
 import static zipkin2.collector.otel.http.SpanTranslator.bytesToLong;
+import static zipkin2.collector.otel.http.SpanTranslator.checkIdLength;
 import static zipkin2.collector.otel.http.SpanTranslator.nanoToMills;
+import static zipkin2.collector.otel.http.SpanTranslator.spanBuilder;
 
 /**
  * LogEventTranslator converts OpenTelemetry Log Events to Zipkin Spans
@@ -28,6 +34,9 @@ import static zipkin2.collector.otel.http.SpanTranslator.nanoToMills;
  */
 final class LogEventTranslator {
   final OtelResourceMapper resourceMapper;
+  final ValueLimits valueLimits;
+  final LogEventFilter filter;
+  final OtelCollectorMetrics metrics;
 
   public static LogEventTranslator create() {
     return newBuilder().build();
@@ -40,12 +49,30 @@ final class LogEventTranslator {
   static final class Builder {
     private OtelResourceMapper resourceMapper;
     private String logEventNameAttribute;
+    private ValueLimits valueLimits = ValueLimits.NONE;
+    private LogEventFilter filter = LogEventFilter.ALLOW_ALL;
+    private OtelCollectorMetrics metrics = OtelCollectorMetrics.NOOP_METRICS;
 
     public Builder otelResourceMapper(OtelResourceMapper resourceMapper) {
       this.resourceMapper = resourceMapper;
       return this;
     }
 
+    Builder valueLimits(ValueLimits valueLimits) {
+      this.valueLimits = valueLimits;
+      return this;
+    }
+
+    Builder filter(LogEventFilter filter) {
+      this.filter = filter;
+      return this;
+    }
+
+    Builder metrics(OtelCollectorMetrics metrics) {
+      this.metrics = metrics;
+      return this;
+    }
+
     public LogEventTranslator build() {
       return new LogEventTranslator(this);
     }
@@ -54,22 +81,70 @@ final class LogEventTranslator {
   private LogEventTranslator(Builder builder) {
     this.resourceMapper = builder.resourceMapper == null ? DefaultOtelResourceMapper.create()
         : builder.resourceMapper;
+    this.valueLimits = builder.valueLimits;
+    this.filter = builder.filter;
+    this.metrics = builder.metrics;
   }
 
+  /**
+   * Translates log events into spans. Events for the same span are coalesced into one span with
+   * an annotation per event, so that chatty emitters cost one storage write per span per request.
+   */
   List<Span> translate(ExportLogsServiceRequest logs) {
-    ArrayList<Span> spans = new ArrayList<>();
+    // Values are the first span for an ID, or a builder once there is another to merge.
+    Map<SpanKey, Object> spans = new LinkedHashMap<>();
     List<ResourceLogs> resourceLogsList = logs.getResourceLogsList();
     for (ResourceLogs resourceLogs : resourceLogsList) {
       for (ScopeLogs scopeLogs : resourceLogs.getScopeLogsList()) {
         for (LogRecord logRecord : scopeLogs.getLogRecordsList()) {
           Span span = generateSpan(logRecord);
-          if (span != null) {
-            spans.add(span);
+          if (span == null) continue;
+          SpanKey key = new SpanKey(span.traceId(), span.id());
+          Object existing = spans.putIfAbsent(key, span);
+          if (existing instanceof Span) {
+            spans.put(key, ((Span) existing).toBuilder().merge(span));
+          } else if (existing != null) {
+            ((Span.Builder) existing).merge(span);
           }
         }
       }
     }
-    return spans;
+    List<Span> result = new ArrayList<>(spans.size());
+    for (Object span : spans.values()) {
+      result.add(span instanceof Span ? (Span) span : ((Span.Builder) span).build());
+    }
+    return result;
+  }
+
+  static final class SpanKey {
+    final String traceId, spanId;
+
+    SpanKey(String traceId, String spanId) {
+      this.traceId = traceId;
+      this.spanId = spanId;
+    }
+
+    @Override public boolean equals(Object o) {
+      if (o == this) return true;
+      if (!(o instanceof SpanKey)) return false;
+      SpanKey that = (SpanKey) o;
+      return traceId.equals(that.traceId) && spanId.equals(that.spanId);
+    }
+
+    @Override public int hashCode() {
+      return traceId.hashCode() * 31 + spanId.hashCode();
+    }
+  }
+
+  /** Returns the value of the first "event.name" attribute, or null if there is none. */
+  @Nullable static String eventName(List<KeyValue> attributes) {
+    for (int i = 0, length = attributes.size(); i < length; i++) {
+      KeyValue attribute = attributes.get(i);
+      if (attribute.getKey().equals(SemanticConventionsAttributes.EVENT_NAME)) {
+        return ProtoUtils.valueToString(attribute.getValue());
+      }
+    }
+    return null;
   }
 
   @Nullable
@@ -78,43 +153,54 @@ final class LogEventTranslator {
     if (logRecord.getTraceId().isEmpty() || logRecord.getSpanId().isEmpty()) {
       return null;
     }
-    Optional<String> eventNameOptional = logRecord.getAttributesList().stream()
-        .filter(attribute -> attribute.getKey().equals(SemanticConventionsAttributes.EVENT_NAME))
-        .findAny()
-        .map(kv -> ProtoUtils.valueToString(kv.getValue()));
-    if (!eventNameOptional.isPresent()) {
+    // Plain log records aren't events, so check the name before counting any drop.
+    String eventName = eventName(logRecord.getAttributesList());
+    if (eventName == null) {
+      return null;
+    }
+    // filter before reading the body, as most dropped events are low severity
+    if (filter.isBelowMinSeverity(logRecord.getSeverityNumberValue())) {
+      metrics.incrementLogEventsDropped(LogEventDropped.SEVERITY);
+      return null;
+    }
+    ByteString traceId = checkIdLength(logRecord.getTraceId(), TRACE_ID_LENGTH, "traceId");
+    ByteString spanId = checkIdLength(logRecord.getSpanId(), SPAN_ID_LENGTH, "spanId");
+    LogEventDropped dropped = filter.dropReason(eventName, bytesToLong(traceId, 8));
+    if (dropped != null) {
+      metrics.incrementLogEventsDropped(dropped);
       return null;
     }
-    String eventName = eventNameOptional.get();
     long timestamp = nanoToMills(logRecord.getTimeUnixNano());
-    KeyValueList.Builder kvListBuilder = KeyValueList.newBuilder();
-    if (logRecord.getSeverityNumber() != SeverityNumber.SEVERITY_NUMBER_UNSPECIFIED) {
-      kvListBuilder.addValues(KeyValue.newBuilder()
-          .setKey("severity_number")
-          .setValue(AnyValue.newBuilder().setIntValue(logRecord.getSeverityNumberValue())));
+    int maxLength = valueLimits.maxAnnotationLength, limit = JsonWriter.writeLimit(maxLength);
+    // Written directly, as the JSON of a key value list: "name":{"severity_number":9,...,"body":..}
+    StringBuilder json = JsonWriter.buffer();
+    JsonWriter.writeString(json, eventName, limit);
+    json.append(":{");
+    int severityNumber = logRecord.getSeverityNumberValue();
+    if (severityNumber != SeverityNumber.SEVERITY_NUMBER_UNSPECIFIED_VALUE) {
+      json.append("\"severity_number\":").append(severityNumber).append(',');
     }
-    if (!logRecord.getSeverityText().isEmpty()) {
-      kvListBuilder.addValues(KeyValue.newBuilder()
-          .setKey("severity_text")
-          .setValue(AnyValue.newBuilder().setStringValue(logRecord.getSeverityText())));
+    String severityText = logRecord.getSeverityText();
+    if (!severityText.isEmpty()) {
+      json.append("\"severity_text\":");
+      JsonWriter.writeString(json, severityText, limit);
+      json.append(',');
     }
     int droppedAttributesCount = logRecord.getDroppedAttributesCount();
     if (droppedAttributesCount > 0) {
-      kvListBuilder.addValues(KeyValue.newBuilder()
-          .setKey("dropped_attributes_count")
-          .setValue(AnyValue.newBuilder().setIntValue(droppedAttributesCount)));
-    }
-    String annotationValue = "\"" + eventName + "\":" + ProtoUtils.valueToJson(AnyValue.newBuilder()
-        .setKvlistValue(kvListBuilder.addValues(KeyValue.newBuilder()
-            .setKey("body")
-            .setValue(logRecord.getBody()))).build());
-    Span.Builder spanBuilder = Span.newBuilder();
-    byte[] traceIdBytes = logRecord.getTraceId().toByteArray();
-    byte[] spanIdBytes = logRecord.getSpanId().toByteArray();
-    long high = bytesToLong(traceIdBytes, 0);
-    long low = bytesToLong(traceIdBytes, 8);
-    spanBuilder.traceId(high, low)
-        .id(bytesToLong(spanIdBytes, 0));
+      json.append("\"dropped_attributes_count\":").append(droppedAttributesCount).append(',');
+    }
+    if (json.length() < limit) {
+      JsonWriter.writeValue(json.append("\"body\":"), logRecord.getBody(), 1, limit);
+      json.append('}');
+    }
+    String annotationValue = ProtoUtils.truncate(json, maxLength);
+    if (annotationValue.length() > maxLength) {
+      metrics.incrementValuesTruncated(TruncatedValue.LOG_ANNOTATION);
+    }
+    Span.Builder spanBuilder = spanBuilder();
+    spanBuilder.traceId(bytesToLong(traceId, 0), bytesToLong(traceId, 8))
+        .id(bytesToLong(spanId, 0));
     return spanBuilder
         .addAnnotation(timestamp, annotationValue)
         .build();
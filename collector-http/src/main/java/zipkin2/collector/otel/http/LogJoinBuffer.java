@@ -0,0 +1,213 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import zipkin2.Span;
+import zipkin2.collector.otel.http.LogEventTranslator.SpanKey;
+
+/**
+ * Holds spans translated from log events for a short window, so they can be merged into the span
+ * they annotate before either is stored. This avoids storing a partial span per log request that
+ * storage and the UI would otherwise merge at read time.
+ *
+ * <p>Log spans are buffered by trace and span ID. When a span with the same IDs is translated, the
+ * buffered annotations are merged into it. Log spans still buffered when the window expires, or
+ * when the buffer is closed, are written separately as before. When the buffer is full, new log
+ * spans bypass it.
+ *
+ * <p>Once {@link #start() started}, a sweep runs on a daemon thread every half window, so log
+ * spans are written between one and one and a half windows after they arrive when no span claims
+ * them.
+ */
+final class LogJoinBuffer implements Closeable {
+  static final Logger LOG = Logger.getLogger(LogJoinBuffer.class.getName());
+
+  static final LogJoinBuffer DISABLED = new LogJoinBuffer(0, 0, spans -> {
+  }, OtelCollectorMetrics.NOOP_METRICS);
+
+  static final int DEFAULT_MAX_SPANS = 10000;
+
+  static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+  /**
+   * @param windowMillis how long to hold log spans. Zero disables the buffer.
+   * @param maxSpans the maximum log spans held at once
+   * @param unjoined receives log spans that weren't merged before they expired
+   */
+  static LogJoinBuffer create(int windowMillis, int maxSpans, Consumer<List<Span>> unjoined,
+      OtelCollectorMetrics metrics) {
+    if (windowMillis < 0) throw new IllegalArgumentException("windowMillis < 0");
+    if (maxSpans < 0) throw new IllegalArgumentException("maxSpans < 0");
+    if (windowMillis == 0 || maxSpans == 0) return DISABLED;
+    return new LogJoinBuffer(windowMillis, maxSpans, unjoined, metrics);
+  }
+
+  final long windowNanos;
+  final int maxSpans;
+  final Consumer<List<Span>> unjoined;
+  final OtelCollectorMetrics metrics;
+  final ConcurrentHashMap<SpanKey, Entry> entries = new ConcurrentHashMap<>();
+  final AtomicLong annotations = new AtomicLong();
+  ScheduledExecutorService sweeper; // guarded by this
+  volatile boolean closed; // written under this
+
+  LogJoinBuffer(int windowMillis, int maxSpans, Consumer<List<Span>> unjoined,
+      OtelCollectorMetrics metrics) {
+    this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    this.maxSpans = maxSpans;
+    this.unjoined = unjoined;
+    this.metrics = metrics;
+  }
+
+  /** Starts sweeping expired log spans. Does nothing if already started or closed. */
+  synchronized void start() {
+    if (this == DISABLED || sweeper != null || closed) return;
+    sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "zipkin-otel-log-join");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long period = Math.max(windowNanos / 2, TimeUnit.MILLISECONDS.toNanos(10));
+    sweeper.scheduleAtFixedRate(() -> {
+      try {
+        sweep(System.nanoTime());
+      } catch (RuntimeException e) {
+        LOG.log(Level.WARNING, "Unable to write expired log spans:", e);
+      }
+    }, period, period, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns the log spans that weren't buffered, and so should be stored now. Once closed, nothing
+   * is buffered, as nothing would write it.
+   */
+  List<Span> offer(List<Span> logSpans) {
+    if (this == DISABLED || closed) return logSpans;
+    long expiresAt = System.nanoTime() + windowNanos;
+    List<Span> rejected = null;
+    for (Span logSpan : logSpans) {
+      SpanKey key = new SpanKey(logSpan.traceId(), logSpan.id());
+      if (entries.size() >= maxSpans && !entries.containsKey(key)) {
+        metrics.incrementLogSpansRejected();
+        if (rejected == null) rejected = new ArrayList<>();
+        rejected.add(logSpan);
+        continue;
+      }
+      entries.compute(key, (k, entry) -> {
+        Entry merged = entry == null ? new Entry(logSpan, expiresAt)
+            : new Entry(entry.span.toBuilder().merge(logSpan).build(), entry.expiresAt);
+        // Merging drops duplicate annotations, so count what's held, not what was offered.
+        annotations.addAndGet(merged.span.annotations().size()
+            - (entry == null ? 0 : entry.span.annotations().size()));
+        return merged;
+      });
+    }
+    // Closed after the check above, so the last sweep may have missed what was just buffered.
+    if (closed) sweep(0L, true);
+    return rejected != null ? rejected : Collections.emptyList();
+  }
+
+  /** Returns the span with any buffered log annotations merged into it. */
+  Span join(Span span) {
+    if (entries.isEmpty()) return span;
+    Entry entry = entries.remove(new SpanKey(span.traceId(), span.id()));
+    if (entry == null) return span;
+    annotations.addAndGet(-entry.span.annotations().size());
+    metrics.incrementLogSpansJoined();
+    return span.toBuilder().merge(entry.span).build();
+  }
+
+  /** Like {@link #join(Span)}, but for each span in the list. */
+  List<Span> join(List<Span> spans) {
+    if (entries.isEmpty()) return spans;
+    List<Span> result = new ArrayList<>(spans.size());
+    for (Span span : spans) result.add(join(span));
+    return result;
+  }
+
+  /** Writes log spans which expired before {@code nanoTime}. */
+  void sweep(long nanoTime) {
+    sweep(nanoTime, false);
+  }
+
+  void sweep(long nanoTime, boolean all) {
+    List<Span> expired = new ArrayList<>();
+    for (Map.Entry<SpanKey, Entry> next : entries.entrySet()) {
+      Entry entry = next.getValue();
+      // Only remove what we read, so a concurrent join or merge isn't lost.
+      if ((all || nanoTime - entry.expiresAt >= 0) && entries.remove(next.getKey(), entry)) {
+        expired.add(entry.span);
+      }
+    }
+    writeUnjoined(expired);
+  }
+
+  void writeUnjoined(List<Span> spans) {
+    if (spans.isEmpty()) return;
+    long expiredAnnotations = 0;
+    for (Span span : spans) expiredAnnotations += span.annotations().size();
+    annotations.addAndGet(-expiredAnnotations);
+    metrics.incrementLogSpansExpired(spans.size());
+    unjoined.accept(spans);
+  }
+
+  /** The count of log spans currently held. */
+  int spans() {
+    return entries.size();
+  }
+
+  /** The count of annotations in log spans currently held, a proxy for memory usage. */
+  long annotations() {
+    return annotations.get();
+  }
+
+  /**
+   * Stops sweeping and writes any log spans still held. A sweep in progress is allowed to finish,
+   * so that it isn't interrupted while writing to storage.
+   */
+  @Override public synchronized void close() {
+    if (this == DISABLED || closed) return;
+    closed = true;
+    if (sweeper != null) {
+      sweeper.shutdown();
+      try {
+        if (!sweeper.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          LOG.warning("Timed out waiting for a sweep of log spans to finish");
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    sweep(0L, true);
+  }
+
+  @Override public String toString() {
+    return "LogJoinBuffer{windowMillis=" + TimeUnit.NANOSECONDS.toMillis(windowNanos)
+        + ", maxSpans=" + maxSpans + "}";
+  }
+
+  static final class Entry {
+    final Span span;
+    final long expiresAt;
+
+    Entry(Span span, long expiresAt) {
+      this.span = span;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -15,6 +15,7 @@ import com.linecorp.armeria.common.MediaType;
 import com.linecorp.armeria.common.ResponseHeaders;
 import com.linecorp.armeria.common.encoding.StreamDecoderFactory;
 import com.linecorp.armeria.server.AbstractHttpService;
+import com.linecorp.armeria.server.HttpService;
 import com.linecorp.armeria.server.ServerBuilder;
 import com.linecorp.armeria.server.ServerConfigurator;
 import com.linecorp.armeria.server.ServiceRequestContext;
@@ -23,8 +24,12 @@ import io.opentelemetry.proto.collector.logs.v1.ExportLogsServiceRequest;
 import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
 import io.opentelemetry.proto.trace.v1.ScopeSpans;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import zipkin2.Callback;
@@ -33,6 +38,8 @@ import zipkin2.collector.Collector;
 import zipkin2.collector.CollectorComponent;
 import zipkin2.collector.CollectorMetrics;
 import zipkin2.collector.CollectorSampler;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Signal;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Stage;
 import zipkin2.storage.StorageComponent;
 
 public final class OpenTelemetryHttpCollector extends CollectorComponent
@@ -50,6 +57,50 @@ public final class OpenTelemetryHttpCollector extends CollectorComponent
 
     OtelResourceMapper otelResourceMapper;
 
+    boolean internStrings;
+
+    List<String> attributeAllowList = Collections.emptyList();
+
+    List<String> attributeDenyList = Collections.emptyList();
+
+    int maxTagValueLength;
+
+    Map<String, Integer> maxTagValueLengths = Collections.emptyMap();
+
+    int maxAnnotationLength;
+
+    int maxSpanNamesPerService;
+
+    List<String> spanNameTemplates = Collections.emptyList();
+
+    String spanNamePlaceholder = SpanNameGuard.DEFAULT_PLACEHOLDER;
+
+    int maxTagCardinality;
+
+    TagOverflowMode tagOverflowMode = TagOverflowMode.DROP;
+
+    boolean elidePromotedAttributes;
+
+    int minLogEventSeverity;
+
+    List<String> logEventAllowList = Collections.emptyList();
+
+    List<String> logEventDenyList = Collections.emptyList();
+
+    Map<String, Float> logEventSampleRates = Collections.emptyMap();
+
+    int logJoinWindowMillis;
+
+    int maxLogJoinSpans = LogJoinBuffer.DEFAULT_MAX_SPANS;
+
+    int maxIngestVolumeKeys;
+
+    int slowRequestThresholdMillis;
+
+    float slowRequestSampleRate = 0.1f;
+
+    OtelCollectorMetrics otelCollectorMetrics = OtelCollectorMetrics.NOOP_METRICS;
+
     @Override
     public Builder storage(StorageComponent storageComponent) {
       delegate.storage(storageComponent);
@@ -76,6 +127,276 @@ public final class OpenTelemetryHttpCollector extends CollectorComponent
       return this;
     }
 
+    /**
+     * When true, span names, tag keys and short tag values are interned in a fixed-size pool, so
+     * that spans queued for storage share instances instead of holding per-request copies.
+     * High-cardinality values bypass the pool. Defaults to false.
+     *
+     * <p>This doesn't affect the {@link #otelResourceMapper(OtelResourceMapper) resource mapper}.
+     * See {@link DefaultOtelResourceMapper.Builder#internStrings(boolean)}.
+     */
+    public Builder internStrings(boolean internStrings) {
+      this.internStrings = internStrings;
+      return this;
+    }
+
+    /**
+     * Span attribute keys to convert to tags. When empty, all keys are converted unless denied.
+     * Defaults to empty.
+     *
+     * <p>Patterns can be exact keys like "thread.id", prefixes like "code.*" or globs like
+     * "http.*.header.*". Attributes not converted are counted with
+     * {@link OtelCollectorMetrics#incrementAttributesDropped(String)}.
+     *
+     * <p>This doesn't affect resource attributes, or attributes promoted to endpoints.
+     */
+    public Builder attributeAllowList(List<String> attributeAllowList) {
+      if (attributeAllowList == null) {
+        throw new NullPointerException("attributeAllowList == null");
+      }
+      this.attributeAllowList = attributeAllowList;
+      return this;
+    }
+
+    /**
+     * Span attribute keys not to convert to tags. These take precedence over
+     * {@link #attributeAllowList(List)}, and use the same pattern syntax. Defaults to empty.
+     */
+    public Builder attributeDenyList(List<String> attributeDenyList) {
+      if (attributeDenyList == null) {
+        throw new NullPointerException("attributeDenyList == null");
+      }
+      this.attributeDenyList = attributeDenyList;
+      return this;
+    }
+
+    /**
+     * Maximum length in characters of tag values. Longer values are cut while they are converted,
+     * suffixed with "..." and counted with
+     * {@link OtelCollectorMetrics#incrementValuesTruncated(OtelCollectorMetrics.TruncatedValue)}.
+     * Defaults to zero, which is unlimited.
+     */
+    public Builder maxTagValueLength(int maxTagValueLength) {
+      if (maxTagValueLength < 0) throw new IllegalArgumentException("maxTagValueLength < 0");
+      this.maxTagValueLength = maxTagValueLength;
+      return this;
+    }
+
+    /**
+     * Maximum lengths of values for specific tag keys, ex. "db.statement", instead of
+     * {@link #maxTagValueLength(int)}. Zero is unlimited. Defaults to empty.
+     */
+    public Builder maxTagValueLengths(Map<String, Integer> maxTagValueLengths) {
+      if (maxTagValueLengths == null) {
+        throw new NullPointerException("maxTagValueLengths == null");
+      }
+      this.maxTagValueLengths = maxTagValueLengths;
+      return this;
+    }
+
+    /**
+     * Maximum length in characters of annotations, converted from span events and log events.
+     * Defaults to zero, which is unlimited.
+     */
+    public Builder maxAnnotationLength(int maxAnnotationLength) {
+      if (maxAnnotationLength < 0) throw new IllegalArgumentException("maxAnnotationLength < 0");
+      this.maxAnnotationLength = maxAnnotationLength;
+      return this;
+    }
+
+    /**
+     * Maximum distinct span names per service. Once a service has used this many, spans with new
+     * names are renamed using {@link #spanNameTemplates(List)} or the
+     * {@link #spanNamePlaceholder(String) placeholder}, and keep their name in the tag
+     * "otel.original_span_name". Defaults to zero, which is unlimited.
+     *
+     * <p>Names are tracked by 64-bit hash, in a table per service that grows with the names it
+     * uses, up to 16-32 bytes per name. For example, a limit of 10000 costs up to 256 KiB for each
+     * service, of which up to 1024 are tracked separately, plus one table shared by the rest.
+     */
+    public Builder maxSpanNamesPerService(int maxSpanNamesPerService) {
+      if (maxSpanNamesPerService < 0) {
+        throw new IllegalArgumentException("maxSpanNamesPerService < 0");
+      }
+      this.maxSpanNamesPerService = maxSpanNamesPerService;
+      return this;
+    }
+
+    /**
+     * Regular expressions matching variable parts of span names, ex. "[0-9]+". When a service has
+     * too many names, matches in new names are replaced with "{}". Defaults to empty.
+     */
+    public Builder spanNameTemplates(List<String> spanNameTemplates) {
+      if (spanNameTemplates == null) {
+        throw new NullPointerException("spanNameTemplates == null");
+      }
+      this.spanNameTemplates = spanNameTemplates;
+      return this;
+    }
+
+    /** The span name to use when no template matched a collapsed name. Defaults to "other". */
+    public Builder spanNamePlaceholder(String spanNamePlaceholder) {
+      if (spanNamePlaceholder == null) {
+        throw new NullPointerException("spanNamePlaceholder == null");
+      }
+      this.spanNamePlaceholder = spanNamePlaceholder;
+      return this;
+    }
+
+    /**
+     * Maximum estimated distinct values of a span tag key. Once a key passes this, its values are
+     * handled per {@link #tagOverflowMode(TagOverflowMode)} and the demotion is counted with
+     * {@link OtelCollectorMetrics#incrementTagKeysDemoted()}. Defaults to zero, which is
+     * unlimited.
+     *
+     * <p>Values are counted with a HyperLogLog sketch of about 1 KiB per key, for up to 1024 keys.
+     * See {@link #tagKeyCardinalities(int)} for the current estimates.
+     */
+    public Builder maxTagCardinality(int maxTagCardinality) {
+      if (maxTagCardinality < 0) throw new IllegalArgumentException("maxTagCardinality < 0");
+      this.maxTagCardinality = maxTagCardinality;
+      return this;
+    }
+
+    /** What to do with values of demoted tag keys. Defaults to {@link TagOverflowMode#DROP}. */
+    public Builder tagOverflowMode(TagOverflowMode tagOverflowMode) {
+      if (tagOverflowMode == null) throw new NullPointerException("tagOverflowMode == null");
+      this.tagOverflowMode = tagOverflowMode;
+      return this;
+    }
+
+    /**
+     * When true, attributes whose values were copied to the local or remote endpoint are not also
+     * written as tags. These are "network.local.address", "network.peer.address" when they are IP
+     * literals, "network.local.port", "network.peer.port" and "peer.service". Defaults to false.
+     */
+    public Builder elidePromotedAttributes(boolean elidePromotedAttributes) {
+      this.elidePromotedAttributes = elidePromotedAttributes;
+      return this;
+    }
+
+    /**
+     * Minimum severity number of log events to convert to annotations, ex. 9 for INFO or 13 for
+     * WARN. Events without a severity are kept. Dropped events are counted with
+     * {@link OtelCollectorMetrics#incrementLogEventsDropped(OtelCollectorMetrics.LogEventDropped)}.
+     * Defaults to zero, which keeps all events.
+     */
+    public Builder minLogEventSeverity(int minLogEventSeverity) {
+      if (minLogEventSeverity < 0) throw new IllegalArgumentException("minLogEventSeverity < 0");
+      this.minLogEventSeverity = minLogEventSeverity;
+      return this;
+    }
+
+    /**
+     * Log event names to convert to annotations. When empty, all names are converted unless
+     * denied. Patterns are the same as {@link #attributeAllowList(List)}. Defaults to empty.
+     */
+    public Builder logEventAllowList(List<String> logEventAllowList) {
+      if (logEventAllowList == null) throw new NullPointerException("logEventAllowList == null");
+      this.logEventAllowList = logEventAllowList;
+      return this;
+    }
+
+    /**
+     * Log event names not to convert to annotations. These take precedence over
+     * {@link #logEventAllowList(List)}. Defaults to empty.
+     */
+    public Builder logEventDenyList(List<String> logEventDenyList) {
+      if (logEventDenyList == null) throw new NullPointerException("logEventDenyList == null");
+      this.logEventDenyList = logEventDenyList;
+      return this;
+    }
+
+    /**
+     * Rates between 0 and 1 at which to keep log events with a given name, ex. "cache.miss" at
+     * 0.01. Events are sampled by trace ID, so a trace keeps all or none of its events with that
+     * name. Defaults to empty, which keeps all events.
+     */
+    public Builder logEventSampleRates(Map<String, Float> logEventSampleRates) {
+      if (logEventSampleRates == null) {
+        throw new NullPointerException("logEventSampleRates == null");
+      }
+      this.logEventSampleRates = logEventSampleRates;
+      return this;
+    }
+
+    /**
+     * How long to hold spans converted from log events, waiting for the span they annotate. When
+     * that span arrives in time, the log annotations are merged into it and stored once.
+     * Otherwise, they are stored separately after the window, once the collector is
+     * {@link OpenTelemetryHttpCollector#start() started}. Defaults to zero, which stores log
+     * events immediately.
+     *
+     * <p>Joins are counted with {@link OtelCollectorMetrics#incrementLogSpansJoined()}, and log
+     * spans stored separately with {@link OtelCollectorMetrics#incrementLogSpansExpired(int)}.
+     * See {@link #bufferedLogSpans()} for the current buffer size.
+     */
+    public Builder logJoinWindowMillis(int logJoinWindowMillis) {
+      if (logJoinWindowMillis < 0) throw new IllegalArgumentException("logJoinWindowMillis < 0");
+      this.logJoinWindowMillis = logJoinWindowMillis;
+      return this;
+    }
+
+    /**
+     * Maximum log spans held by {@link #logJoinWindowMillis(int)}. When full, log events are
+     * stored immediately. Defaults to 10000.
+     */
+    public Builder maxLogJoinSpans(int maxLogJoinSpans) {
+      if (maxLogJoinSpans < 0) throw new IllegalArgumentException("maxLogJoinSpans < 0");
+      this.maxLogJoinSpans = maxLogJoinSpans;
+      return this;
+    }
+
+    /**
+     * Services, and span names per service, to track by spans received over the last minute. See
+     * {@link #topServicesByVolume(int)} and {@link #topSpanNamesByVolume(int)} for the busiest.
+     * Defaults to zero, which tracks nothing.
+     *
+     * <p>Keys are counted with a Space-Saving sketch, so memory stays fixed however many services
+     * there are. Ranks are accurate for keys with more than 1/{@code maxIngestVolumeKeys} of the
+     * spans.
+     */
+    public Builder maxIngestVolumeKeys(int maxIngestVolumeKeys) {
+      if (maxIngestVolumeKeys < 0) throw new IllegalArgumentException("maxIngestVolumeKeys < 0");
+      this.maxIngestVolumeKeys = maxIngestVolumeKeys;
+      return this;
+    }
+
+    /**
+     * Requests taking at least this long are captured as a {@link SlowRequest}, a digest of their
+     * payload and stage timings. See {@link #slowRequests()} for the last 100 captured. Defaults
+     * to zero, which captures nothing.
+     */
+    public Builder slowRequestThresholdMillis(int slowRequestThresholdMillis) {
+      if (slowRequestThresholdMillis < 0) {
+        throw new IllegalArgumentException("slowRequestThresholdMillis < 0");
+      }
+      this.slowRequestThresholdMillis = slowRequestThresholdMillis;
+      return this;
+    }
+
+    /**
+     * Rate between 0 and 1 of requests that can be captured by
+     * {@link #slowRequestThresholdMillis(int)}. Sampled requests keep their decoded message until
+     * they complete, in case they are slow. Defaults to 0.1.
+     */
+    public Builder slowRequestSampleRate(float slowRequestSampleRate) {
+      if (!(slowRequestSampleRate >= 0 && slowRequestSampleRate <= 1)) {
+        throw new IllegalArgumentException("slowRequestSampleRate should be between 0 and 1");
+      }
+      this.slowRequestSampleRate = slowRequestSampleRate;
+      return this;
+    }
+
+    /** Records instrumentation specific to this collector. Defaults to no-op. */
+    public Builder otelCollectorMetrics(OtelCollectorMetrics otelCollectorMetrics) {
+      if (otelCollectorMetrics == null) {
+        throw new NullPointerException("otelCollectorMetrics == null");
+      }
+      this.otelCollectorMetrics = otelCollectorMetrics;
+      return this;
+    }
+
     @Override
     public OpenTelemetryHttpCollector build() {
       return new OpenTelemetryHttpCollector(this);
@@ -91,6 +412,28 @@ public final class OpenTelemetryHttpCollector extends CollectorComponent
 
   final OtelResourceMapper otelResourceMapper;
 
+  final boolean internStrings;
+
+  final AttributeFilter attributeFilter;
+
+  final ValueLimits valueLimits;
+
+  final SpanNameGuard spanNameGuard;
+
+  final TagCardinality tagCardinality;
+
+  final boolean elidePromotedAttributes;
+
+  final OtelCollectorMetrics otelCollectorMetrics;
+
+  final LogEventFilter logEventFilter;
+
+  final LogJoinBuffer logJoinBuffer;
+
+  final IngestVolumes ingestVolumes;
+
+  final SlowRequests slowRequests;
+
   private final JsonFormat.Parser jsonParser = JsonFormat.parser();
 
   OpenTelemetryHttpCollector(Builder builder) {
@@ -98,13 +441,38 @@ public final class OpenTelemetryHttpCollector extends CollectorComponent
     metrics = builder.metrics;
     otelResourceMapper = builder.otelResourceMapper == null ? DefaultOtelResourceMapper.create()
         : builder.otelResourceMapper;
+    internStrings = builder.internStrings;
+    attributeFilter =
+        AttributeFilter.create(builder.attributeAllowList, builder.attributeDenyList);
+    valueLimits = ValueLimits.create(builder.maxTagValueLength, builder.maxTagValueLengths,
+        builder.maxAnnotationLength);
+    spanNameGuard = SpanNameGuard.create(builder.maxSpanNamesPerService,
+        builder.spanNameTemplates, builder.spanNamePlaceholder);
+    tagCardinality = TagCardinality.create(builder.maxTagCardinality, builder.tagOverflowMode);
+    elidePromotedAttributes = builder.elidePromotedAttributes;
+    otelCollectorMetrics = builder.otelCollectorMetrics;
+    logEventFilter = LogEventFilter.create(builder.minLogEventSeverity,
+        builder.logEventAllowList, builder.logEventDenyList, builder.logEventSampleRates);
+    logJoinBuffer = LogJoinBuffer.create(builder.logJoinWindowMillis, builder.maxLogJoinSpans,
+        spans -> collector.accept(spans, IGNORE_RESULT), otelCollectorMetrics);
+    ingestVolumes = IngestVolumes.create(builder.maxIngestVolumeKeys);
+    slowRequests = SlowRequests.create(builder.slowRequestThresholdMillis,
+        builder.slowRequestSampleRate);
   }
 
+  /** Starts writing log events held by {@link Builder#logJoinWindowMillis(int)} once expired. */
   @Override
   public OpenTelemetryHttpCollector start() {
+    logJoinBuffer.start();
     return this;
   }
 
+  /** Stores any log events held by {@link Builder#logJoinWindowMillis(int)}. */
+  @Override
+  public void close() {
+    logJoinBuffer.close();
+  }
+
   @Override
   public String toString() {
     return "OpenTelemetryHttpCollector{}";
@@ -114,12 +482,64 @@ public final class OpenTelemetryHttpCollector extends CollectorComponent
     return otelResourceMapper;
   }
 
+  /**
+   * Returns up to {@code limit} span tag keys with the highest estimated number of distinct
+   * values, highest first. This is empty unless {@link Builder#maxTagCardinality(int)} is set.
+   */
+  public Map<String, Long> tagKeyCardinalities(int limit) {
+    return tagCardinality.top(limit);
+  }
+
+  /** Returns the span tag keys demoted for passing {@link Builder#maxTagCardinality(int)}. */
+  public Set<String> demotedTagKeys() {
+    return tagCardinality.demotedKeys();
+  }
+
+  /** Returns the count of log spans held by {@link Builder#logJoinWindowMillis(int)}. */
+  public int bufferedLogSpans() {
+    return logJoinBuffer.spans();
+  }
+
+  /**
+   * Returns the count of annotations in log spans held by {@link Builder#logJoinWindowMillis(int)}.
+   * This is a proxy for the memory used by the buffer.
+   */
+  public long bufferedLogAnnotations() {
+    return logJoinBuffer.annotations();
+  }
+
+  /**
+   * Returns up to {@code limit} services with the most spans over the last minute, most first.
+   * This is empty unless {@link Builder#maxIngestVolumeKeys(int)} is set.
+   *
+   * @throws IllegalArgumentException if {@code limit} is negative
+   */
+  public List<IngestVolume> topServicesByVolume(int limit) {
+    return ingestVolumes.topServices(System.nanoTime(), limit);
+  }
+
+  /** Like {@link #topServicesByVolume(int)}, except per span name of each service. */
+  public List<IngestVolume> topSpanNamesByVolume(int limit) {
+    return ingestVolumes.topSpanNames(System.nanoTime(), limit);
+  }
+
+  /**
+   * Returns the most recent requests captured by {@link Builder#slowRequestThresholdMillis(int)},
+   * most recent first.
+   */
+  public List<SlowRequest> slowRequests() {
+    return slowRequests.list();
+  }
+
   /**
    * Reconfigures the service per https://opentelemetry.io/docs/specs/otlp/#otlphttp-request
    */
   @Override
   public void reconfigure(ServerBuilder sb) {
-    sb.decorator(DecodingService.newDecorator(StreamDecoderFactory.gzip()));
+    Function<? super HttpService, DecodingService> decoding =
+        DecodingService.newDecorator(StreamDecoderFactory.gzip());
+    // Wraps the decoding service, to count bytes before they are decompressed.
+    sb.decorator(delegate -> new CompressedSizeService(decoding.apply(delegate)));
     sb.service("/v1/traces", new OtlpV1TracesHttpService(this));
     sb.service("/v1/logs", new OtlpV1LogsHttpService(this));
   }
@@ -134,14 +554,27 @@ public final class OpenTelemetryHttpCollector extends CollectorComponent
 
     OtlpV1TracesHttpService(OpenTelemetryHttpCollector collector) {
       this.collector = collector;
-      this.spanTranslator = new SpanTranslator(collector.otelResourceMapper);
+      this.spanTranslator = SpanTranslator.newBuilder()
+          .otelResourceMapper(collector.otelResourceMapper)
+          .internStrings(collector.internStrings)
+          .attributeFilter(collector.attributeFilter)
+          .valueLimits(collector.valueLimits)
+          .spanNameGuard(collector.spanNameGuard)
+          .tagCardinality(collector.tagCardinality)
+          .elidePromotedAttributes(collector.elidePromotedAttributes)
+          .metrics(collector.otelCollectorMetrics)
+          .build();
     }
 
     @Override
     protected HttpResponse doPost(ServiceRequestContext ctx, HttpRequest req) {
       CompletableCallback result = new CompletableCallback();
+      StageRecorder stages = new StageRecorder(collector.otelCollectorMetrics,
+          collector.slowRequests, Signal.TRACES, req.headers().contentType());
+      result.whenComplete((response, error) -> stages.endRequest(error));
       req.aggregate(AggregationOptions.usePooledObjects(ctx.alloc(), ctx.eventLoop()
       )).handle((msg, t) -> {
+        stages.endStage(Stage.AGGREGATE);
         if (t != null) {
           collector.metrics.incrementMessagesDropped();
           result.onError(t);
@@ -153,6 +586,9 @@ public final class OpenTelemetryHttpCollector extends CollectorComponent
             return null;
           }
           collector.metrics.incrementBytes(content.length());
+          stages.bytes(content.length());
+          long compressedBytes = CompressedSizeService.compressedBytes(ctx);
+          if (compressedBytes != -1L) stages.compressedBytes(compressedBytes);
           try {
             MediaType contentType = msg.headers().contentType();
             if (contentType == null) {
@@ -163,18 +599,30 @@ public final class OpenTelemetryHttpCollector extends CollectorComponent
             if (contentType.isProtobuf()) {
               request = ExportTraceServiceRequest.parseFrom(
                   UnsafeByteOperations.unsafeWrap(content.byteBuf().nioBuffer()).newCodedInput());
+              stages.endStage(Stage.DECODE);
             } else if (contentType.isJson()) {
               ExportTraceServiceRequest.Builder builder = ExportTraceServiceRequest.newBuilder();
               collector.jsonParser.merge(content.toReaderUtf8(), builder);
+              stages.endStage(Stage.DECODE);
               ProtoUtils.fixJsonIds(builder);
               request = builder.build();
+              stages.endStage(Stage.FIX_JSON_IDS);
             } else {
               throw new IllegalArgumentException("Unsupported Content-Type: " + contentType);
             }
+            try {
+              collector.ingestVolumes.record(request, System.nanoTime());
+            } catch (RuntimeException e) {
+              // Only for the ingest volume endpoint, so don't fail the request.
+              LOG.log(Level.WARNING, "Unable to record ingest volumes:", e);
+            }
             collector.metrics.incrementMessages();
             try {
-              List<Span> spans = spanTranslator.translate(request);
-              collector.collector.accept(spans, result);
+              stages.requestSizes(request);
+              List<Span> spans = collector.logJoinBuffer.join(spanTranslator.translate(request));
+              stages.endStage(Stage.TRANSLATE);
+              stages.spans(spans.size());
+              collector.collector.accept(spans, stages.storeCallback(result));
             } catch (RuntimeException e) {
               // If the span is invalid, an exception such as IllegalArgumentException will be thrown.
               int spanSize = request.getResourceSpansList().stream()
@@ -205,14 +653,21 @@ public final class OpenTelemetryHttpCollector extends CollectorComponent
       this.collector = collector;
       this.logEventTranslator = LogEventTranslator.newBuilder()
           .otelResourceMapper(collector.otelResourceMapper)
+          .valueLimits(collector.valueLimits)
+          .filter(collector.logEventFilter)
+          .metrics(collector.otelCollectorMetrics)
           .build();
     }
 
     @Override
     protected HttpResponse doPost(ServiceRequestContext ctx, HttpRequest req) throws Exception {
       CompletableCallback result = new CompletableCallback();
+      StageRecorder stages = new StageRecorder(collector.otelCollectorMetrics,
+          collector.slowRequests, Signal.LOGS, req.headers().contentType());
+      result.whenComplete((response, error) -> stages.endRequest(error));
       req.aggregate(AggregationOptions.usePooledObjects(ctx.alloc(), ctx.eventLoop()
       )).handle((msg, t) -> {
+        stages.endStage(Stage.AGGREGATE);
         if (t != null) {
           collector.metrics.incrementMessagesDropped();
           result.onError(t);
@@ -224,6 +679,9 @@ public final class OpenTelemetryHttpCollector extends CollectorComponent
             return null;
           }
           collector.metrics.incrementBytes(content.length());
+          stages.bytes(content.length());
+          long compressedBytes = CompressedSizeService.compressedBytes(ctx);
+          if (compressedBytes != -1L) stages.compressedBytes(compressedBytes);
           try {
             MediaType contentType = msg.headers().contentType();
             if (contentType == null) {
@@ -232,20 +690,27 @@ public final class OpenTelemetryHttpCollector extends CollectorComponent
             }
             ExportLogsServiceRequest request;
             if (contentType.isProtobuf()) {
-              request = ExportLogsServiceRequest.parseFrom(
-                  UnsafeByteOperations.unsafeWrap(content.byteBuf().nioBuffer()).newCodedInput());
+              // Skips log records that aren't events without parsing their bodies.
+              request = LogEventDecoder.decode(content.byteBuf().nioBuffer());
+              stages.endStage(Stage.DECODE);
             } else if (contentType.isJson()) {
               ExportLogsServiceRequest.Builder builder = ExportLogsServiceRequest.newBuilder();
               collector.jsonParser.merge(content.toReaderUtf8(), builder);
+              stages.endStage(Stage.DECODE);
               ProtoUtils.fixJsonIds(builder);
               request = builder.build();
+              stages.endStage(Stage.FIX_JSON_IDS);
             } else {
               throw new IllegalArgumentException("Unsupported Content-Type: " + contentType);
             }
             collector.metrics.incrementMessages();
             try {
+              stages.requestSizes(request);
               List<Span> spans = logEventTranslator.translate(request);
-              collector.collector.accept(spans, result);
+              spans = collector.logJoinBuffer.offer(spans);
+              stages.endStage(Stage.TRANSLATE);
+              stages.spans(spans.size());
+              collector.collector.accept(spans, stages.storeCallback(result));
             } catch (RuntimeException e) {
               // TODO count dropped spans
               LOG.log(Level.WARNING, "Unable to translate the logs:", e);
@@ -263,6 +728,15 @@ public final class OpenTelemetryHttpCollector extends CollectorComponent
     }
   }
 
+  /** Errors storing spans are already logged and counted by {@link Collector}. */
+  static final Callback<Void> IGNORE_RESULT = new Callback<Void>() {
+    @Override public void onSuccess(Void value) {
+    }
+
+    @Override public void onError(Throwable t) {
+    }
+  };
+
   static final class CompletableCallback extends CompletableFuture<HttpResponse>
       implements Callback<Void> {
 
@@ -0,0 +1,187 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import zipkin2.collector.CollectorMetrics;
+
+/**
+ * Instrumentation specific to {@link OpenTelemetryHttpCollector}, in addition to the message and
+ * span counts recorded with {@link CollectorMetrics}.
+ *
+ * <p>All methods default to no-op, so implementations only override what they record. Methods are
+ * called on request threads, so implementations must be thread-safe and cheap.
+ */
+public interface OtelCollectorMetrics {
+  OtelCollectorMetrics NOOP_METRICS = new OtelCollectorMetrics() {
+    @Override public String toString() {
+      return "NoopOtelCollectorMetrics";
+    }
+  };
+
+  /** The kinds of values cut to a maximum length. */
+  enum TruncatedValue {
+    /** A span tag value, converted from an attribute. */
+    TAG,
+    /** A span annotation, converted from an event. */
+    ANNOTATION,
+    /** A span annotation, converted from a log event. */
+    LOG_ANNOTATION
+  }
+
+  /** The OTLP/HTTP endpoint a request was sent to. */
+  enum Signal {
+    /** {@code /v1/traces} */
+    TRACES("/v1/traces"),
+    /** {@code /v1/logs} */
+    LOGS("/v1/logs");
+
+    final String path;
+
+    Signal(String path) {
+      this.path = path;
+    }
+
+    /** The request path, ex. "/v1/traces". */
+    public String path() {
+      return path;
+    }
+  }
+
+  /** The content type of a request. */
+  enum Encoding {
+    PROTOBUF,
+    JSON,
+    /** Missing or unsupported content types. */
+    OTHER
+  }
+
+  /** Steps taken to ingest an OTLP/HTTP request, in order. */
+  enum Stage {
+    /** Receiving the request body, from the start of the request. */
+    AGGREGATE,
+    /** Parsing the body into a protobuf message. */
+    DECODE,
+    /** Converting hex IDs read as base64, only for JSON. */
+    FIX_JSON_IDS,
+    /** Converting the message to Zipkin spans. */
+    TRANSLATE,
+    /** Storing the spans, until storage completes or fails. */
+    STORE
+  }
+
+  /** Sizes recorded per request, or per span, to help tune batch sizes and limits. */
+  enum Distribution {
+    /** Bytes received, before decompression. Only recorded for compressed requests. */
+    REQUEST_COMPRESSED_BYTES,
+    /** Bytes of the request body, after decompression. */
+    REQUEST_BYTES,
+    /**
+     * Spans or log records per request. Protobuf log records that aren't events are skipped while
+     * decoding, so aren't counted.
+     */
+    REQUEST_ITEMS,
+    /** Resources per request. */
+    REQUEST_RESOURCES,
+    /** Attributes per span, before any are dropped. Only recorded for traces. */
+    SPAN_ATTRIBUTES,
+    /** Events per span. Only recorded for traces. */
+    SPAN_EVENTS
+  }
+
+  /** Why a log event was not converted to an annotation. */
+  enum LogEventDropped {
+    /** The event's severity was below the minimum. */
+    SEVERITY,
+    /** Allowed event names were configured, and none matched. */
+    NOT_ALLOWED,
+    /** A denied event name matched. */
+    DENIED,
+    /** The event's trace wasn't sampled at the rate configured for its name. */
+    SAMPLED
+  }
+
+  /**
+   * Increments the count of span attributes that were not converted to tags.
+   *
+   * @param rule the deny pattern that matched the attribute key, or "not_allowed" when no allow
+   * pattern matched it.
+   * @see OpenTelemetryHttpCollector.Builder#attributeDenyList(java.util.List)
+   */
+  default void incrementAttributesDropped(String rule) {
+  }
+
+  /**
+   * Increments the count of values that were longer than their configured maximum length.
+   *
+   * @see OpenTelemetryHttpCollector.Builder#maxTagValueLength(int)
+   */
+  default void incrementValuesTruncated(TruncatedValue type) {
+  }
+
+  /**
+   * Increments the count of spans renamed because their service had too many distinct names.
+   *
+   * @see OpenTelemetryHttpCollector.Builder#maxSpanNamesPerService(int)
+   */
+  default void incrementSpanNamesCollapsed() {
+  }
+
+  /**
+   * Increments the count of tag keys demoted because they had too many distinct values.
+   *
+   * @see OpenTelemetryHttpCollector.Builder#maxTagCardinality(int)
+   */
+  default void incrementTagKeysDemoted() {
+  }
+
+  /**
+   * Increments the count of log spans merged into their span before storage.
+   *
+   * @see OpenTelemetryHttpCollector.Builder#logJoinWindowMillis(int)
+   */
+  default void incrementLogSpansJoined() {
+  }
+
+  /**
+   * Increments the count of log spans written separately, because their span wasn't received
+   * within the join window.
+   *
+   * @see OpenTelemetryHttpCollector.Builder#logJoinWindowMillis(int)
+   */
+  default void incrementLogSpansExpired(int quantity) {
+  }
+
+  /**
+   * Increments the count of log spans written without waiting for their span, because the join
+   * buffer was full.
+   *
+   * @see OpenTelemetryHttpCollector.Builder#maxLogJoinSpans(int)
+   */
+  default void incrementLogSpansRejected() {
+  }
+
+  /**
+   * Increments the count of log events not converted to annotations, by why they were dropped.
+   *
+   * @see OpenTelemetryHttpCollector.Builder#minLogEventSeverity(int)
+   */
+  default void incrementLogEventsDropped(LogEventDropped reason) {
+  }
+
+  /**
+   * Records how long a stage of ingesting a request took. Stages not reached, for example due to
+   * a decode error, are not recorded.
+   */
+  default void recordStage(Signal signal, Encoding encoding, Stage stage, long durationNanos) {
+  }
+
+  /**
+   * Records a sample of a distribution, such as the size of a request or the attributes of a span.
+   * Requests that can't be decoded only record their size in bytes.
+   */
+  default void recordDistribution(Signal signal, Encoding encoding, Distribution distribution,
+      long value) {
+  }
+}
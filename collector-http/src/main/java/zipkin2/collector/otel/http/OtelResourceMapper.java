@@ -6,9 +6,17 @@ package zipkin2.collector.otel.http;
 
 import io.opentelemetry.proto.resource.v1.Resource;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * The interface to map OpenTelemetry Resource to Zipkin Span
  */
 public interface OtelResourceMapper extends BiConsumer<Resource, zipkin2.Span.Builder> {
+  /**
+   * Returns a function that maps the resource onto each of its spans. This is called once per
+   * resource in a request, so implementations can override it to do work once for all its spans.
+   */
+  default Consumer<zipkin2.Span.Builder> forResource(Resource resource) {
+    return builder -> accept(resource, builder);
+  }
 }
@@ -5,7 +5,6 @@
 package zipkin2.collector.otel.http;
 
 import com.google.protobuf.ByteString;
-import com.google.protobuf.TextFormat;
 import io.opentelemetry.proto.collector.logs.v1.ExportLogsServiceRequest;
 import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
 import io.opentelemetry.proto.common.v1.AnyValue;
@@ -19,9 +18,9 @@ import java.util.Base64;
 import java.util.List;
 import java.util.Locale;
 
-import static java.util.stream.Collectors.joining;
-
 final class ProtoUtils {
+  /** Appended to values cut by a {@link ValueLimits maximum length}. */
+  static final String TRUNCATED_SUFFIX = "...";
 
   /**
    * Fixes trace, span and parent IDs that were mis-decoded by {@code JsonFormat.parser()}.
@@ -71,14 +70,23 @@ final class ProtoUtils {
     return ByteString.fromHex(hex);
   }
   static String kvListToJson(List<KeyValue> attributes) {
-    return attributes.stream()
-        .map(entry -> "\"" + entry.getKey() + "\":" + valueToJson(entry.getValue()))
-        .collect(joining(",", "{", "}"));
+    StringBuilder json = JsonWriter.buffer();
+    JsonWriter.writeKeyValues(json, attributes);
+    return json.toString();
   }
 
   static String valueToString(AnyValue value) {
+    return valueToString(value, ValueLimits.UNLIMITED);
+  }
+
+  /**
+   * Like {@link #valueToString(AnyValue)}, but stops converting after {@code maxLength}
+   * characters. A result that was cut is suffixed with {@link #TRUNCATED_SUFFIX}, so it was
+   * truncated if, and only if, it is longer than {@code maxLength}.
+   */
+  static String valueToString(AnyValue value, int maxLength) {
     if (value.hasStringValue()) {
-      return value.getStringValue();
+      return stringValue(value, maxLength);
     }
     if (value.hasArrayValue()) {
       // While https://github.com/open-telemetry/opentelemetry-specification/blob/main/specification/common/README.md#attribute says
@@ -86,42 +94,62 @@ final class ProtoUtils {
       // the Otel Zipkin Exporter doesn't implement like that https://github.com/open-telemetry/opentelemetry-java/blob/main/exporters/zipkin/src/test/java/io/opentelemetry/exporter/zipkin/OtelToZipkinSpanTransformerTest.java#L382-L385
       // Also Brave doesn't use the json encoding.
       // So follow the comma separator here.
-      return value.getArrayValue().getValuesList().stream()
-          .map(ProtoUtils::valueToString)
-          .collect(joining(","));
+      List<AnyValue> values = value.getArrayValue().getValuesList();
+      StringBuilder result = new StringBuilder();
+      for (int i = 0, length = values.size(); i < length; i++) {
+        if (result.length() > maxLength) break;
+        if (i > 0) result.append(',');
+        int remaining = maxLength - result.length();
+        result.append(valueToString(values.get(i), remaining < 0 ? 0 : remaining));
+      }
+      return truncate(result, maxLength);
+    }
+    if (value.hasDoubleValue()) {
+      // Only JSON quotes NaN and infinity, so don't format doubles as JSON.
+      return truncate(String.valueOf(value.getDoubleValue()), maxLength);
     }
-    return valueToJson(value);
+    return valueToJson(value, maxLength);
   }
 
   static String valueToJson(AnyValue value) {
-    if (value.hasStringValue()) {
-      return quote(value.getStringValue());
-    }
-    if (value.hasArrayValue()) {
-      return value.getArrayValue().getValuesList().stream()
-          .map(ProtoUtils::valueToJson)
-          .collect(joining(",", "[", "]"));
-    }
-    if (value.hasKvlistValue()) {
-      return kvListToJson(value.getKvlistValue().getValuesList());
-    }
-    if (value.hasBoolValue()) {
-      return String.valueOf(value.getBoolValue());
-    }
-    if (value.hasDoubleValue()) {
-      return String.valueOf(value.getDoubleValue());
-    }
-    if (value.hasIntValue()) {
-      return String.valueOf(value.getIntValue());
-    }
-    if (value.hasBytesValue()) {
-      // TODO
-      return quote(TextFormat.escapeBytes(value.getBytesValue()));
-    }
-    return quote(value.toString());
+    return valueToJson(value, ValueLimits.UNLIMITED);
   }
 
-  static String quote(String value) {
-    return "\"" + value.replace("\n", "\\n") + "\"";
+  static String valueToJson(AnyValue value, int maxLength) {
+    StringBuilder json = JsonWriter.buffer();
+    JsonWriter.writeValue(json, value, 0, JsonWriter.writeLimit(maxLength));
+    return truncate(json, maxLength);
+  }
+
+  /** Decodes no more of a long string value than needed to truncate it. */
+  static String stringValue(AnyValue value, int maxLength) {
+    ByteString utf8 = value.getStringValueBytes();
+    // A UTF-8 character is at least one byte, so the value can't be too long.
+    if (utf8.size() <= maxLength) return value.getStringValue();
+    // A character is at most 4 bytes, so this prefix decodes to more than maxLength characters.
+    long prefixLength = 4L * maxLength + 4;
+    if (prefixLength >= utf8.size()) return truncate(value.getStringValue(), maxLength);
+    int end = (int) prefixLength;
+    while ((utf8.byteAt(end) & 0xc0) == 0x80) end--; // don't split a character
+    return truncate(utf8.substring(0, end).toStringUtf8(), maxLength);
+  }
+
+  static String truncate(String value, int maxLength) {
+    if (value.length() <= maxLength) return value;
+    return value.substring(0, truncatedLength(value, maxLength)) + TRUNCATED_SUFFIX;
+  }
+
+  static String truncate(StringBuilder value, int maxLength) {
+    if (value.length() <= maxLength) return value.toString();
+    value.setLength(truncatedLength(value, maxLength));
+    return value.append(TRUNCATED_SUFFIX).toString();
+  }
+
+  /** Returns maxLength, unless that would split a surrogate pair. */
+  static int truncatedLength(CharSequence value, int maxLength) {
+    if (maxLength > 0 && Character.isHighSurrogate(value.charAt(maxLength - 1))) {
+      return maxLength - 1;
+    }
+    return maxLength;
   }
 }
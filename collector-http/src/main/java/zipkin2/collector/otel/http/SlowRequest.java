@@ -0,0 +1,129 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.List;
+import java.util.Map;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Encoding;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Signal;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Stage;
+import zipkin2.internal.Nullable;
+
+/**
+ * A digest of a request that took longer than the slow request threshold. This describes the
+ * shape of the payload without keeping it.
+ *
+ * <p>Fields describing the payload are zero or empty when the request couldn't be decoded.
+ *
+ * @see OpenTelemetryHttpCollector.Builder#slowRequestThresholdMillis(int)
+ */
+public final class SlowRequest {
+  final long timestamp, durationNanos;
+  final Signal signal;
+  final Encoding encoding;
+  final String outcome;
+  final Map<Stage, Long> stageNanos;
+  final long bytes, compressedBytes;
+  final int resources, items;
+  final List<String> serviceNames;
+  @Nullable final String largestAttributeKey;
+  final int largestAttributeBytes, maxValueDepth;
+
+  SlowRequest(long timestamp, long durationNanos, Signal signal, Encoding encoding,
+      String outcome, Map<Stage, Long> stageNanos, long bytes, long compressedBytes,
+      int resources, int items, List<String> serviceNames, @Nullable String largestAttributeKey,
+      int largestAttributeBytes, int maxValueDepth) {
+    this.timestamp = timestamp;
+    this.durationNanos = durationNanos;
+    this.signal = signal;
+    this.encoding = encoding;
+    this.outcome = outcome;
+    this.stageNanos = stageNanos;
+    this.bytes = bytes;
+    this.compressedBytes = compressedBytes;
+    this.resources = resources;
+    this.items = items;
+    this.serviceNames = serviceNames;
+    this.largestAttributeKey = largestAttributeKey;
+    this.largestAttributeBytes = largestAttributeBytes;
+    this.maxValueDepth = maxValueDepth;
+  }
+
+  /** Epoch milliseconds when the request completed. */
+  public long timestamp() {
+    return timestamp;
+  }
+
+  /** Nanoseconds from the start of the request until it completed. */
+  public long durationNanos() {
+    return durationNanos;
+  }
+
+  public Signal signal() {
+    return signal;
+  }
+
+  public Encoding encoding() {
+    return encoding;
+  }
+
+  /** "accepted", or the simple name of the exception that failed the request. */
+  public String outcome() {
+    return outcome;
+  }
+
+  /** Nanoseconds spent in each stage reached, in order. */
+  public Map<Stage, Long> stageNanos() {
+    return stageNanos;
+  }
+
+  /** Bytes of the request body, after decompression. */
+  public long bytes() {
+    return bytes;
+  }
+
+  /** Bytes received before decompression, or -1 if the request wasn't compressed. */
+  public long compressedBytes() {
+    return compressedBytes;
+  }
+
+  public int resources() {
+    return resources;
+  }
+
+  /** Spans or log records in the request. */
+  public int items() {
+    return items;
+  }
+
+  /** Distinct "service.name" resource attributes, up to 10. */
+  public List<String> serviceNames() {
+    return serviceNames;
+  }
+
+  /**
+   * The key of the attribute with the largest encoded value, of any resource, span, event, link
+   * or log record. A log record body uses the key "body".
+   */
+  @Nullable public String largestAttributeKey() {
+    return largestAttributeKey;
+  }
+
+  /** Protobuf encoded size of the value of {@link #largestAttributeKey()}. */
+  public int largestAttributeBytes() {
+    return largestAttributeBytes;
+  }
+
+  /** How deeply values nest arrays and key-value lists. Zero when all values are scalar. */
+  public int maxValueDepth() {
+    return maxValueDepth;
+  }
+
+  @Override public String toString() {
+    return "SlowRequest{signal=" + signal + ", encoding=" + encoding
+        + ", durationNanos=" + durationNanos + ", outcome=" + outcome + ", bytes=" + bytes
+        + ", items=" + items + ", serviceNames=" + serviceNames + "}";
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import io.opentelemetry.proto.collector.logs.v1.ExportLogsServiceRequest;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.proto.common.v1.AnyValue;
+import io.opentelemetry.proto.common.v1.KeyValue;
+import io.opentelemetry.proto.logs.v1.LogRecord;
+import io.opentelemetry.proto.logs.v1.ResourceLogs;
+import io.opentelemetry.proto.logs.v1.ScopeLogs;
+import io.opentelemetry.proto.resource.v1.Resource;
+import io.opentelemetry.proto.trace.v1.ResourceSpans;
+import io.opentelemetry.proto.trace.v1.ScopeSpans;
+import io.opentelemetry.proto.trace.v1.Span;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import zipkin2.internal.Nullable;
+
+/**
+ * Keeps digests of the most recent slow requests in a ring buffer of {@value #CAPACITY}.
+ *
+ * <p>Requests are sampled when they start, as whether they will be slow isn't known yet. Only
+ * sampled requests time their stages and keep their decoded message until they complete. The
+ * message is only walked to build a {@link SlowRequest} if the request was slow.
+ */
+final class SlowRequests {
+  static final SlowRequests NOOP = new SlowRequests(0L, 0f);
+
+  static final int CAPACITY = 100, MAX_SERVICE_NAMES = 10;
+
+  static SlowRequests create(int thresholdMillis, float sampleRate) {
+    if (thresholdMillis < 0) throw new IllegalArgumentException("thresholdMillis < 0");
+    if (!(sampleRate >= 0 && sampleRate <= 1)) {
+      throw new IllegalArgumentException("sampleRate should be between 0 and 1");
+    }
+    if (thresholdMillis == 0 || sampleRate == 0) return NOOP;
+    return new SlowRequests(TimeUnit.MILLISECONDS.toNanos(thresholdMillis), sampleRate);
+  }
+
+  final long thresholdNanos;
+  final float sampleRate;
+  final SlowRequest[] ring = new SlowRequest[CAPACITY];
+  int next, size; // guarded by this
+
+  SlowRequests(long thresholdNanos, float sampleRate) {
+    this.thresholdNanos = thresholdNanos;
+    this.sampleRate = sampleRate;
+  }
+
+  /** Returns true if a starting request should be captured if it turns out to be slow. */
+  boolean sample() {
+    if (this == NOOP) return false;
+    return sampleRate == 1f || ThreadLocalRandom.current().nextFloat() < sampleRate;
+  }
+
+  boolean isSlow(long durationNanos) {
+    return durationNanos >= thresholdNanos;
+  }
+
+  synchronized void add(SlowRequest slowRequest) {
+    ring[next] = slowRequest;
+    next = (next + 1) % CAPACITY;
+    if (size < CAPACITY) size++;
+  }
+
+  /** Returns the captured requests, most recent first. */
+  synchronized List<SlowRequest> list() {
+    List<SlowRequest> result = new ArrayList<>(size);
+    for (int i = 1; i <= size; i++) {
+      result.add(ring[(next - i + CAPACITY) % CAPACITY]);
+    }
+    return result;
+  }
+
+  @Override public String toString() {
+    return "SlowRequests{thresholdNanos=" + thresholdNanos + ", sampleRate=" + sampleRate + "}";
+  }
+
+  /** The shape of a decoded request, as summarized in a {@link SlowRequest}. */
+  static final class Payload {
+    int resources, items;
+    final List<String> serviceNames = new ArrayList<>();
+    @Nullable String largestAttributeKey;
+    int largestAttributeBytes, maxValueDepth;
+
+    static Payload of(@Nullable Object request) {
+      if (request instanceof ExportTraceServiceRequest) {
+        return traces((ExportTraceServiceRequest) request);
+      } else if (request instanceof ExportLogsServiceRequest) {
+        return logs((ExportLogsServiceRequest) request);
+      }
+      return new Payload(); // not decoded
+    }
+
+    static Payload traces(ExportTraceServiceRequest request) {
+      Payload payload = new Payload();
+      for (ResourceSpans resourceSpans : request.getResourceSpansList()) {
+        payload.resource(resourceSpans.getResource());
+        for (ScopeSpans scopeSpans : resourceSpans.getScopeSpansList()) {
+          for (Span span : scopeSpans.getSpansList()) {
+            payload.items++;
+            payload.attributes(span.getAttributesList());
+            for (Span.Event event : span.getEventsList()) {
+              payload.attributes(event.getAttributesList());
+            }
+            for (Span.Link link : span.getLinksList()) {
+              payload.attributes(link.getAttributesList());
+            }
+          }
+        }
+      }
+      return payload;
+    }
+
+    static Payload logs(ExportLogsServiceRequest request) {
+      Payload payload = new Payload();
+      for (ResourceLogs resourceLogs : request.getResourceLogsList()) {
+        payload.resource(resourceLogs.getResource());
+        for (ScopeLogs scopeLogs : resourceLogs.getScopeLogsList()) {
+          for (LogRecord logRecord : scopeLogs.getLogRecordsList()) {
+            payload.items++;
+            payload.attributes(logRecord.getAttributesList());
+            if (logRecord.hasBody()) payload.value("body", logRecord.getBody());
+          }
+        }
+      }
+      return payload;
+    }
+
+    void resource(Resource resource) {
+      resources++;
+      String serviceName = IngestVolumes.serviceName(resource);
+      if (serviceNames.size() < MAX_SERVICE_NAMES && !serviceNames.contains(serviceName)) {
+        serviceNames.add(serviceName);
+      }
+      attributes(resource.getAttributesList());
+    }
+
+    void attributes(List<KeyValue> attributes) {
+      for (int i = 0, length = attributes.size(); i < length; i++) {
+        KeyValue attribute = attributes.get(i);
+        value(attribute.getKey(), attribute.getValue());
+      }
+    }
+
+    void value(String key, AnyValue value) {
+      int bytes = value.getSerializedSize();
+      if (bytes > largestAttributeBytes) {
+        largestAttributeKey = key;
+        largestAttributeBytes = bytes;
+      }
+      maxValueDepth = Math.max(maxValueDepth, depth(value));
+    }
+
+    static int depth(AnyValue value) {
+      int depth = 0;
+      switch (value.getValueCase()) {
+        case ARRAY_VALUE:
+          for (AnyValue element : value.getArrayValue().getValuesList()) {
+            depth = Math.max(depth, depth(element));
+          }
+          return depth + 1;
+        case KVLIST_VALUE:
+          for (KeyValue entry : value.getKvlistValue().getValuesList()) {
+            depth = Math.max(depth, depth(entry.getValue()));
+          }
+          return depth + 1;
+        default:
+          return 0;
+      }
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Pattern;
+import zipkin2.internal.Nullable;
+
+/**
+ * Bounds the number of distinct span names per service, so that instrumentation putting IDs or
+ * URLs into span names can't explode the span name index.
+ *
+ * <p>Each service keeps the 64-bit hashes of the first {@code maxNamesPerService} names it used,
+ * so memory is bounded by that number, not by the names themselves. The hash table of a service
+ * grows as it uses names, up to 16-32 bytes per name when full. Once a service is full, new
+ * names are collapsed: each template pattern match is replaced with {@link #TEMPLATE_WILDCARD},
+ * and if no template matched, the name is replaced with the placeholder.
+ *
+ * <p>Services beyond {@link #MAX_SERVICES} share one set of names.
+ */
+final class SpanNameGuard {
+  static final SpanNameGuard NOOP = new SpanNameGuard(0, new Pattern[0], "");
+
+  /** The tag holding a span name that was collapsed. */
+  static final String ORIGINAL_SPAN_NAME = "otel.original_span_name";
+
+  static final String DEFAULT_PLACEHOLDER = "other";
+
+  static final String TEMPLATE_WILDCARD = "{}";
+
+  static final int MAX_SERVICES = 1024;
+
+  static final int MAX_NAMES_PER_SERVICE = 1 << 20;
+
+  /**
+   * @param maxNamesPerService zero disables the guard
+   * @param templates regular expressions matching variable parts of span names, ex. "[0-9]+"
+   */
+  static SpanNameGuard create(int maxNamesPerService, List<String> templates,
+      String placeholder) {
+    if (maxNamesPerService < 0) throw new IllegalArgumentException("maxNamesPerService < 0");
+    if (maxNamesPerService > MAX_NAMES_PER_SERVICE) {
+      throw new IllegalArgumentException("maxNamesPerService > " + MAX_NAMES_PER_SERVICE);
+    }
+    if (maxNamesPerService == 0) return NOOP;
+    Pattern[] compiled = new Pattern[templates.size()];
+    for (int i = 0; i < compiled.length; i++) {
+      compiled[i] = Pattern.compile(templates.get(i));
+    }
+    return new SpanNameGuard(maxNamesPerService, compiled, placeholder);
+  }
+
+  final int maxNamesPerService;
+  final Pattern[] templates;
+  final String placeholder;
+  final ConcurrentHashMap<String, NameHashes> services = new ConcurrentHashMap<>();
+  final NameHashes otherServices;
+
+  SpanNameGuard(int maxNamesPerService, Pattern[] templates, String placeholder) {
+    this.maxNamesPerService = maxNamesPerService;
+    this.templates = templates;
+    this.placeholder = placeholder;
+    this.otherServices = new NameHashes(maxNamesPerService);
+  }
+
+  /** Returns null if the span can keep its name, or the name to use instead. */
+  @Nullable String collapse(@Nullable String serviceName, String name) {
+    if (this == NOOP) return null;
+    if (serviceName == null) serviceName = "";
+    NameHashes names = services.get(serviceName);
+    if (names == null) {
+      if (services.size() >= MAX_SERVICES) {
+        names = otherServices;
+      } else {
+        names = services.computeIfAbsent(serviceName, s -> new NameHashes(maxNamesPerService));
+      }
+    }
+    if (names.add(Hashing.hash64(name))) return null;
+
+    String result = name;
+    for (Pattern template : templates) {
+      result = template.matcher(result).replaceAll(TEMPLATE_WILDCARD);
+    }
+    if (result.equals(name)) return placeholder;
+    return result;
+  }
+
+  @Override public String toString() {
+    return "SpanNameGuard{maxNamesPerService=" + maxNamesPerService + "}";
+  }
+
+  /**
+   * An open-addressing set of up to {@code maxSize} hashes, which starts small and doubles as
+   * hashes are added. Zero marks an empty slot.
+   *
+   * <p>Every span of a service checks its name, so this is read from all event loops at once.
+   * Hashes already present, and any hash once full, are answered without locking. Only adding a
+   * hash takes the lock. Slots are only ever filled, and a grown table is published after it is
+   * filled, so a reader sees a subset of the hashes and at worst falls through to the lock.
+   */
+  static final class NameHashes {
+    static final int INITIAL_CAPACITY = 16;
+
+    final int maxSize, maxCapacity;
+    volatile AtomicLongArray table; // replaced under this
+    volatile int size; // written under this
+
+    NameHashes(int maxSize) {
+      this.maxSize = maxSize;
+      // Keep the load factor at or under one half, so that probes stay short.
+      this.maxCapacity = Integer.highestOneBit(Math.max(1, 2 * maxSize - 1)) << 1;
+      this.table = new AtomicLongArray(Math.min(INITIAL_CAPACITY, maxCapacity));
+    }
+
+    /** Returns true if the hash was present, or there was room to add it. */
+    boolean add(long hash) {
+      if (hash == 0L) hash = 1L;
+      if (contains(table, hash)) return true;
+      if (size >= maxSize) return false; // the table doesn't change once full
+      return addLocked(hash);
+    }
+
+    synchronized boolean addLocked(long hash) {
+      AtomicLongArray table = this.table;
+      if (contains(table, hash)) return true;
+      if (size >= maxSize) return false;
+      // As size < maxSize, the table is under maxCapacity whenever this is true.
+      if ((size + 1) * 2 > table.length()) {
+        table = rehash(new AtomicLongArray(table.length() << 1), table);
+        this.table = table;
+      }
+      insert(table, hash);
+      size++;
+      return true;
+    }
+
+    static boolean contains(AtomicLongArray table, long hash) {
+      int mask = table.length() - 1;
+      for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+        long existing = table.get(i);
+        if (existing == hash) return true;
+        if (existing == 0L) return false;
+      }
+    }
+
+    static AtomicLongArray rehash(AtomicLongArray to, AtomicLongArray from) {
+      for (int i = 0, length = from.length(); i < length; i++) {
+        long hash = from.get(i);
+        if (hash != 0L) insert(to, hash);
+      }
+      return to;
+    }
+
+    static void insert(AtomicLongArray table, long hash) {
+      int mask = table.length() - 1;
+      int i = (int) hash & mask;
+      while (table.get(i) != 0L) i = (i + 1) & mask;
+      table.set(i, hash);
+    }
+  }
+}
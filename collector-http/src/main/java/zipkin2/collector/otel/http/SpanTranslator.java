@@ -17,12 +17,15 @@ import io.opentelemetry.proto.trace.v1.Span.Event;
 import io.opentelemetry.proto.trace.v1.Span.SpanKind;
 import io.opentelemetry.proto.trace.v1.Status;
 import io.opentelemetry.proto.trace.v1.Status.StatusCode;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import zipkin2.Endpoint;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.TruncatedValue;
+import zipkin2.internal.Nullable;
 
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
@@ -40,14 +43,125 @@ final class SpanTranslator {
 
   static final String ERROR_TAG = "error";
 
+  static final int TRACE_ID_LENGTH = 16, SPAN_ID_LENGTH = 8;
+
+  /**
+   * Builders reused by each thread. {@link zipkin2.Span.Builder#build()} copies tags and
+   * annotations, so once a span is built, the cleared builder keeps only its empty collections.
+   */
+  static final ThreadLocal<zipkin2.Span.Builder> SPAN_BUILDER =
+      ThreadLocal.withInitial(zipkin2.Span::newBuilder);
+
   final OtelResourceMapper resourceMapper;
 
+  final EndpointCache endpointCache = new EndpointCache();
+
+  final StringInterner stringInterner;
+
+  final AttributeFilter attributeFilter;
+
+  final ValueLimits valueLimits;
+
+  final SpanNameGuard spanNameGuard;
+
+  final TagCardinality tagCardinality;
+
+  final boolean elidePromotedAttributes;
+
+  final OtelCollectorMetrics metrics;
+
+  final Runnable tagKeyDemoted;
+
+  static Builder newBuilder() {
+    return new Builder();
+  }
+
+  static final class Builder {
+    private OtelResourceMapper resourceMapper;
+
+    private boolean internStrings;
+
+    private AttributeFilter attributeFilter = AttributeFilter.ALLOW_ALL;
+
+    private ValueLimits valueLimits = ValueLimits.NONE;
+
+    private SpanNameGuard spanNameGuard = SpanNameGuard.NOOP;
+
+    private TagCardinality tagCardinality = TagCardinality.NOOP;
+
+    private boolean elidePromotedAttributes;
+
+    private OtelCollectorMetrics metrics = OtelCollectorMetrics.NOOP_METRICS;
+
+    Builder otelResourceMapper(OtelResourceMapper resourceMapper) {
+      this.resourceMapper = resourceMapper;
+      return this;
+    }
+
+    /** @see OpenTelemetryHttpCollector.Builder#internStrings(boolean) */
+    Builder internStrings(boolean internStrings) {
+      this.internStrings = internStrings;
+      return this;
+    }
+
+    Builder attributeFilter(AttributeFilter attributeFilter) {
+      this.attributeFilter = attributeFilter;
+      return this;
+    }
+
+    Builder valueLimits(ValueLimits valueLimits) {
+      this.valueLimits = valueLimits;
+      return this;
+    }
+
+    Builder spanNameGuard(SpanNameGuard spanNameGuard) {
+      this.spanNameGuard = spanNameGuard;
+      return this;
+    }
+
+    Builder tagCardinality(TagCardinality tagCardinality) {
+      this.tagCardinality = tagCardinality;
+      return this;
+    }
+
+    /** @see OpenTelemetryHttpCollector.Builder#elidePromotedAttributes(boolean) */
+    Builder elidePromotedAttributes(boolean elidePromotedAttributes) {
+      this.elidePromotedAttributes = elidePromotedAttributes;
+      return this;
+    }
+
+    Builder metrics(OtelCollectorMetrics metrics) {
+      this.metrics = metrics;
+      return this;
+    }
+
+    SpanTranslator build() {
+      return new SpanTranslator(this);
+    }
+
+    Builder() {
+    }
+  }
+
+  SpanTranslator(Builder builder) {
+    this.resourceMapper = builder.resourceMapper == null ? DefaultOtelResourceMapper.create()
+        : builder.resourceMapper;
+    this.stringInterner = builder.internStrings ? StringInterner.create() : StringInterner.NOOP;
+    this.attributeFilter = builder.attributeFilter;
+    this.valueLimits = builder.valueLimits;
+    this.spanNameGuard = builder.spanNameGuard;
+    this.tagCardinality = builder.tagCardinality;
+    this.elidePromotedAttributes = builder.elidePromotedAttributes;
+    this.metrics = builder.metrics;
+    this.tagKeyDemoted = metrics::incrementTagKeysDemoted;
+  }
+
   SpanTranslator(OtelResourceMapper resourceMapper) {
-    this.resourceMapper = resourceMapper;
+    this(newBuilder().otelResourceMapper(resourceMapper));
   }
 
   SpanTranslator() {
-    this(DefaultOtelResourceMapper.create());
+    this(newBuilder());
   }
 
   List<zipkin2.Span> translate(ExportTraceServiceRequest otelSpans) {
@@ -55,47 +169,83 @@ final class SpanTranslator {
     List<ResourceSpans> spansList = otelSpans.getResourceSpansList();
     for (ResourceSpans resourceSpans : spansList) {
       Resource resource = resourceSpans.getResource();
+      Consumer<zipkin2.Span.Builder> resourceTags = resourceTags(resource);
       for (ScopeSpans scopeSpans : resourceSpans.getScopeSpansList()) {
         InstrumentationScope scope = scopeSpans.getScope();
         for (io.opentelemetry.proto.trace.v1.Span span : scopeSpans.getSpansList()) {
-          spans.add(generateSpan(span, scope, resource));
+          spans.add(generateSpan(span, scope, resource, resourceTags));
         }
       }
     }
     return spans;
   }
 
-  private zipkin2.Span generateSpan(Span spanData, InstrumentationScope scope, Resource resource) {
+  /** Resource attributes are tags, so the default mapper applies the same value limits. */
+  Consumer<zipkin2.Span.Builder> resourceTags(Resource resource) {
+    if (!(resourceMapper instanceof DefaultOtelResourceMapper)) {
+      return resourceMapper.forResource(resource);
+    }
+    DefaultOtelResourceMapper mapper = (DefaultOtelResourceMapper) resourceMapper;
+    return mapper.forResource(resource, valueLimits, metrics);
+  }
+
+  private zipkin2.Span generateSpan(Span spanData, InstrumentationScope scope, Resource resource,
+      Consumer<zipkin2.Span.Builder> resourceTags) {
     long startTimestamp = nanoToMills(spanData.getStartTimeUnixNano());
     long endTimestamp = nanoToMills(spanData.getEndTimeUnixNano());
     Map<String, AnyValue> attributesMap = spanData.getAttributesList()
         .stream()
         .collect(Collectors.toMap(KeyValue::getKey, KeyValue::getValue,
             (a, b) -> b /* The latter wins */));
-    zipkin2.Span.Builder spanBuilder = zipkin2.Span.newBuilder();
-    byte[] traceIdBytes = spanData.getTraceId().toByteArray();
-    byte[] spanIdBytes = spanData.getSpanId().toByteArray();
-    long high = bytesToLong(traceIdBytes, 0);
-    long low = bytesToLong(traceIdBytes, 8);
+    zipkin2.Span.Builder spanBuilder = spanBuilder();
+    ByteString traceId = checkIdLength(spanData.getTraceId(), TRACE_ID_LENGTH, "traceId");
+    ByteString spanId = checkIdLength(spanData.getSpanId(), SPAN_ID_LENGTH, "spanId");
     spanBuilder
-        .traceId(high, low)
-        .id(bytesToLong(spanIdBytes, 0));
+        .traceId(bytesToLong(traceId, 0), bytesToLong(traceId, 8))
+        .id(bytesToLong(spanId, 0));
+    Endpoint localEndpoint = getLocalEndpoint(attributesMap, resource);
+    Endpoint remoteEndpoint = getRemoteEndpoint(attributesMap, spanData.getKind());
+    // Zipkin lower-cases span names, so guard and intern the result of that.
+    String spanName = spanData.getName().toLowerCase(Locale.ROOT);
+    String serviceName = localEndpoint != null ? localEndpoint.serviceName() : null;
+    String collapsedName = spanNameGuard.collapse(serviceName, spanName);
+    if (collapsedName != null) {
+      metrics.incrementSpanNamesCollapsed();
+      spanBuilder.putTag(SpanNameGuard.ORIGINAL_SPAN_NAME, spanName);
+      spanName = collapsedName;
+    }
     spanBuilder
         .kind(toSpanKind(spanData.getKind()))
-        .name(spanData.getName())
+        .name(stringInterner.intern(spanName))
         .timestamp(nanoToMills(spanData.getStartTimeUnixNano()))
         .duration(Math.max(1, endTimestamp - startTimestamp))
-        .localEndpoint(getLocalEndpoint(attributesMap, resource))
-        .remoteEndpoint(getRemoteEndpoint(attributesMap, spanData.getKind()));
+        .localEndpoint(localEndpoint)
+        .remoteEndpoint(remoteEndpoint);
     ByteString parentSpanId = spanData.getParentSpanId();
     if (!parentSpanId.isEmpty()) {
-      long parentId = bytesToLong(parentSpanId.toByteArray(), 0);
+      long parentId =
+          bytesToLong(checkIdLength(parentSpanId, SPAN_ID_LENGTH, "parentSpanId"), 0);
       if (parentId != 0) {
         spanBuilder.parentId(parentId);
       }
     }
-    resourceMapper.accept(resource, spanBuilder);
-    attributesMap.forEach((k, v) -> spanBuilder.putTag(k, ProtoUtils.valueToString(v)));
+    resourceTags.accept(spanBuilder);
+    attributesMap.forEach((k, v) -> {
+      if (elidePromotedAttributes && isPromoted(k, localEndpoint, remoteEndpoint)) return;
+      // Check the key first, so that values of dropped attributes are never converted.
+      String dropRule = attributeFilter.dropRule(k);
+      if (dropRule != null) {
+        metrics.incrementAttributesDropped(dropRule);
+        return;
+      }
+      if (tagCardinality.isDropped(k)) return;
+      int maxLength = valueLimits.maxTagValueLength(k);
+      String value = ProtoUtils.valueToString(v, maxLength);
+      if (value.length() > maxLength) metrics.incrementValuesTruncated(TruncatedValue.TAG);
+      value = tagCardinality.record(k, value, tagKeyDemoted);
+      if (value == null) return;
+      spanBuilder.putTag(stringInterner.intern(k), stringInterner.intern(value));
+    });
     // https://github.com/open-telemetry/opentelemetry-specification/blob/main/specification/common/mapping-to-non-otlp.md#dropped-attributes-count
     int droppedAttributes = spanData.getAttributesCount() - attributesMap.size();
     if (droppedAttributes > 0) {
@@ -106,7 +256,8 @@ final class SpanTranslator {
     if (status.getCode() != Status.StatusCode.STATUS_CODE_UNSET) {
       String codeValue =
           status.getCode().toString().replace("STATUS_CODE_", ""); // either OK or ERROR
-      spanBuilder.putTag(SemanticConventionsAttributes.OTEL_STATUS_CODE, codeValue);
+      spanBuilder.putTag(SemanticConventionsAttributes.OTEL_STATUS_CODE,
+          stringInterner.intern(codeValue));
       // add the error tag, if it isn't already in the source span.
       if (status.getCode() == StatusCode.STATUS_CODE_ERROR && !attributesMap.containsKey(
           ERROR_TAG)) {
@@ -115,21 +266,30 @@ final class SpanTranslator {
     }
     // https://github.com/open-telemetry/opentelemetry-specification/blob/main/specification/common/mapping-to-non-otlp.md#instrumentationscope
     if (!scope.getName().isEmpty()) {
-      spanBuilder.putTag(SemanticConventionsAttributes.OTEL_SCOPE_NAME, scope.getName());
+      spanBuilder.putTag(SemanticConventionsAttributes.OTEL_SCOPE_NAME,
+          stringInterner.intern(scope.getName()));
     }
     if (!scope.getVersion().isEmpty()) {
-      spanBuilder.putTag(SemanticConventionsAttributes.OTEL_SCOPE_VERSION, scope.getVersion());
+      spanBuilder.putTag(SemanticConventionsAttributes.OTEL_SCOPE_VERSION,
+          stringInterner.intern(scope.getVersion()));
     }
     for (Event eventData : spanData.getEventsList()) {
       // https://github.com/open-telemetry/opentelemetry-specification/blob/main/specification/trace/sdk_exporters/zipkin.md#events
       String name = eventData.getName();
       List<KeyValue> attributesList = eventData.getAttributesList();
+      int maxLength = valueLimits.maxAnnotationLength;
       String annotation;
       if (attributesList.isEmpty()) {
-        annotation = name;
+        annotation = stringInterner.intern(ProtoUtils.truncate(name, maxLength));
       } else {
-        String value = ProtoUtils.kvListToJson(attributesList);
-        annotation = "\"" + name + "\":" + value;
+        int limit = JsonWriter.writeLimit(maxLength);
+        StringBuilder json = JsonWriter.buffer();
+        JsonWriter.writeString(json, name, limit);
+        JsonWriter.writeKeyValues(json.append(':'), attributesList, 0, limit);
+        annotation = ProtoUtils.truncate(json, maxLength);
+      }
+      if (annotation.length() > maxLength) {
+        metrics.incrementValuesTruncated(TruncatedValue.ANNOTATION);
       }
       spanBuilder.addAnnotation(nanoToMills(eventData.getTimeUnixNano()), annotation);
     }
@@ -141,31 +301,25 @@ final class SpanTranslator {
     return spanBuilder.build();
   }
 
-  private static Endpoint getLocalEndpoint(Map<String, AnyValue> attributesMap, Resource resource) {
+  private Endpoint getLocalEndpoint(Map<String, AnyValue> attributesMap, Resource resource) {
     AnyValue serviceName = resource.getAttributesList().stream()
         .filter(kv -> kv.getKey().equals(SemanticConventionsAttributes.SERVICE_NAME))
         .findFirst()
         .map(KeyValue::getValue)
         .orElse(null);
     if (serviceName != null) {
-      Endpoint.Builder endpoint = Endpoint.newBuilder().serviceName(serviceName.getStringValue());
       AnyValue networkLocalAddress =
           attributesMap.get(SemanticConventionsAttributes.NETWORK_LOCAL_ADDRESS);
       AnyValue networkLocalPort =
           attributesMap.get(SemanticConventionsAttributes.NETWORK_LOCAL_PORT);
-      if (networkLocalAddress != null) {
-        endpoint.ip(networkLocalAddress.getStringValue());
-      }
-      if (networkLocalPort != null) {
-        endpoint.port(Long.valueOf(networkLocalPort.getIntValue()).intValue());
-      }
-      // TODO remove the corresponding (duplicated) tags?
-      return endpoint.build();
+      return endpointCache.get(serviceName.getStringValue(),
+          networkLocalAddress != null ? networkLocalAddress.getStringValue() : null,
+          networkLocalPort != null ? (int) networkLocalPort.getIntValue() : 0);
     }
     return null;
   }
 
-  private static Endpoint getRemoteEndpoint(Map<String, AnyValue> attributesMap, SpanKind kind) {
+  private Endpoint getRemoteEndpoint(Map<String, AnyValue> attributesMap, SpanKind kind) {
     if (kind == SpanKind.SPAN_KIND_CLIENT || kind == SpanKind.SPAN_KIND_PRODUCER) {
       AnyValue peerService = attributesMap.get(SemanticConventionsAttributes.PEER_SERVICE);
       AnyValue networkPeerAddress =
@@ -179,22 +333,41 @@ final class SpanTranslator {
         serviceName = networkPeerAddress.getStringValue();
       }
       if (serviceName != null) {
-        Endpoint.Builder endpoint = Endpoint.newBuilder().serviceName(serviceName);
         AnyValue networkPeerPort =
             attributesMap.get(SemanticConventionsAttributes.NETWORK_PEER_PORT);
-        if (networkPeerAddress != null) {
-          endpoint.ip(networkPeerAddress.getStringValue());
-        }
-        if (networkPeerPort != null) {
-          endpoint.port(Long.valueOf(networkPeerPort.getIntValue()).intValue());
-        }
-        // TODO remove the corresponding (duplicated) tags?
-        return endpoint.build();
+        return endpointCache.get(serviceName,
+            networkPeerAddress != null ? networkPeerAddress.getStringValue() : null,
+            networkPeerPort != null ? (int) networkPeerPort.getIntValue() : 0);
       }
     }
     return null;
   }
 
+  /**
+   * Returns true if the attribute's value is held by an endpoint, so that its tag is redundant.
+   * Addresses that aren't IP literals are not promoted, and neither are absent ports.
+   */
+  static boolean isPromoted(String key, @Nullable Endpoint local, @Nullable Endpoint remote) {
+    switch (key) {
+      case SemanticConventionsAttributes.NETWORK_LOCAL_ADDRESS:
+        return hasIp(local);
+      case SemanticConventionsAttributes.NETWORK_LOCAL_PORT:
+        return local != null && local.portAsInt() != 0;
+      case SemanticConventionsAttributes.NETWORK_PEER_ADDRESS:
+        return hasIp(remote);
+      case SemanticConventionsAttributes.NETWORK_PEER_PORT:
+        return remote != null && remote.portAsInt() != 0;
+      case SemanticConventionsAttributes.PEER_SERVICE:
+        return remote != null; // peer.service is preferred as the remote service name
+      default:
+        return false;
+    }
+  }
+
+  static boolean hasIp(@Nullable Endpoint endpoint) {
+    return endpoint != null && (endpoint.ipv4() != null || endpoint.ipv6() != null);
+  }
+
   static zipkin2.Span.Kind toSpanKind(Span.SpanKind spanKind) {
     switch (spanKind) {
       case SPAN_KIND_UNSPECIFIED:
@@ -215,14 +388,36 @@ final class SpanTranslator {
     return null;
   }
 
+  /** Returns a cleared builder for the current thread. Build a span before calling again. */
+  static zipkin2.Span.Builder spanBuilder() {
+    return SPAN_BUILDER.get().clear();
+  }
+
   static long nanoToMills(long epochNanos) {
     return NANOSECONDS.toMicros(epochNanos);
   }
 
-  static long bytesToLong(byte[] bytes, int offset) {
-    if (bytes == null || bytes.length < offset + 8) {
-      return 0;
+  /**
+   * Reads a big-endian long from the ID in place. This avoids copying the ID to an array, as
+   * {@link ByteString#toByteArray()} would.
+   */
+  static long bytesToLong(ByteString bytes, int offset) {
+    return (bytes.byteAt(offset) & 0xffL) << 56
+        | (bytes.byteAt(offset + 1) & 0xffL) << 48
+        | (bytes.byteAt(offset + 2) & 0xffL) << 40
+        | (bytes.byteAt(offset + 3) & 0xffL) << 32
+        | (bytes.byteAt(offset + 4) & 0xffL) << 24
+        | (bytes.byteAt(offset + 5) & 0xffL) << 16
+        | (bytes.byteAt(offset + 6) & 0xffL) << 8
+        | (bytes.byteAt(offset + 7) & 0xffL);
+  }
+
+  /** Rejects IDs too short to read, instead of silently reading them as zero. */
+  static ByteString checkIdLength(ByteString id, int length, String name) {
+    if (id.size() < length) {
+      throw new IllegalArgumentException(
+          name + " should be " + length + " bytes, but was " + id.size());
     }
-    return ByteBuffer.wrap(bytes, offset, 8).getLong();
+    return id;
   }
 }
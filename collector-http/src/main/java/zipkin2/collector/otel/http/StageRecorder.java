@@ -0,0 +1,176 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import com.linecorp.armeria.common.MediaType;
+import io.opentelemetry.proto.collector.logs.v1.ExportLogsServiceRequest;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.proto.logs.v1.ResourceLogs;
+import io.opentelemetry.proto.logs.v1.ScopeLogs;
+import io.opentelemetry.proto.trace.v1.ResourceSpans;
+import io.opentelemetry.proto.trace.v1.ScopeSpans;
+import io.opentelemetry.proto.trace.v1.Span;
+import java.util.EnumMap;
+import java.util.Map;
+import zipkin2.Callback;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Distribution;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Encoding;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Signal;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Stage;
+import zipkin2.internal.Nullable;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Times the stages of one request with {@link System#nanoTime()}, so each stage costs two clock
+ * reads and a call to {@link OtelCollectorMetrics#recordStage}.
+ *
+ * <p>Stages run one after another, so each one starts when the previous one ends.
+ *
+ * <p>This also records the {@link Distribution distributions} of the request, tagged with the
+ * same signal and encoding.
+ *
+ * <p>When sampled by {@link SlowRequests}, the stage durations and decoded message are also kept,
+ * so that a digest can be captured if the request turns out to be slow.
+ *
+ * <p>On Java 11+, the request and its stages are also emitted as {@link JfrEvents JDK Flight
+ * Recorder events}.
+ */
+final class StageRecorder {
+  final OtelCollectorMetrics metrics;
+  final SlowRequests slowRequests;
+  final Signal signal;
+  final Encoding encoding;
+  final long requestStart;
+  long stageStart, bytes, compressedBytes = -1L;
+  int spans;
+  @Nullable Object stageEvent;
+  @Nullable final Object requestEvent;
+  /** Only set when sampled for slow request capture. */
+  @Nullable final long[] stageNanos;
+  @Nullable Object decoded;
+
+  StageRecorder(OtelCollectorMetrics metrics, SlowRequests slowRequests, Signal signal,
+      @Nullable MediaType contentType) {
+    this.metrics = metrics;
+    this.slowRequests = slowRequests;
+    this.signal = signal;
+    this.encoding = encoding(contentType);
+    this.stageNanos = slowRequests.sample() ? new long[Stage.values().length] : null;
+    this.requestEvent = JfrEvents.beginRequest();
+    this.stageEvent = JfrEvents.beginStage();
+    this.requestStart = this.stageStart = System.nanoTime();
+  }
+
+  static Encoding encoding(@Nullable MediaType contentType) {
+    if (contentType == null) return Encoding.OTHER;
+    if (contentType.isProtobuf()) return Encoding.PROTOBUF;
+    if (contentType.isJson()) return Encoding.JSON;
+    return Encoding.OTHER;
+  }
+
+  /** Records the time since the previous stage ended. */
+  void endStage(Stage stage) {
+    long now = System.nanoTime();
+    metrics.recordStage(signal, encoding, stage, now - stageStart);
+    if (stageNanos != null) stageNanos[stage.ordinal()] += now - stageStart;
+    JfrEvents.endStage(stageEvent, signal, encoding, stage);
+    stageEvent = JfrEvents.beginStage();
+    stageStart = now;
+  }
+
+  /** Sets the size of the request body, for the request event, and records it. */
+  void bytes(long bytes) {
+    this.bytes = bytes;
+    record(Distribution.REQUEST_BYTES, bytes);
+  }
+
+  /** Sets and records the bytes received before decompression. */
+  void compressedBytes(long compressedBytes) {
+    this.compressedBytes = compressedBytes;
+    record(Distribution.REQUEST_COMPRESSED_BYTES, compressedBytes);
+  }
+
+  /** Records the resources and spans of a decoded request and what each span contains. */
+  void requestSizes(ExportTraceServiceRequest request) {
+    if (stageNanos != null) decoded = request;
+    if (metrics == OtelCollectorMetrics.NOOP_METRICS) return; // don't walk the request for nothing
+    int items = 0;
+    for (ResourceSpans resourceSpans : request.getResourceSpansList()) {
+      for (ScopeSpans scopeSpans : resourceSpans.getScopeSpansList()) {
+        for (Span span : scopeSpans.getSpansList()) {
+          items++;
+          record(Distribution.SPAN_ATTRIBUTES, span.getAttributesCount());
+          record(Distribution.SPAN_EVENTS, span.getEventsCount());
+        }
+      }
+    }
+    record(Distribution.REQUEST_RESOURCES, request.getResourceSpansCount());
+    record(Distribution.REQUEST_ITEMS, items);
+  }
+
+  /** Records the resources and log records of a decoded request. */
+  void requestSizes(ExportLogsServiceRequest request) {
+    if (stageNanos != null) decoded = request;
+    if (metrics == OtelCollectorMetrics.NOOP_METRICS) return;
+    int items = 0;
+    for (ResourceLogs resourceLogs : request.getResourceLogsList()) {
+      for (ScopeLogs scopeLogs : resourceLogs.getScopeLogsList()) {
+        items += scopeLogs.getLogRecordsCount();
+      }
+    }
+    record(Distribution.REQUEST_RESOURCES, request.getResourceLogsCount());
+    record(Distribution.REQUEST_ITEMS, items);
+  }
+
+  void record(Distribution distribution, long value) {
+    metrics.recordDistribution(signal, encoding, distribution, value);
+  }
+
+  /** Sets the count of spans to store, for the request event. */
+  void spans(int spans) {
+    this.spans = spans;
+  }
+
+  /** Ends the request event, if there is one, and captures the request if it was slow. */
+  void endRequest(@Nullable Throwable error) {
+    String outcome = error == null ? "accepted" : error.getClass().getSimpleName();
+    JfrEvents.endRequest(requestEvent, signal, encoding, bytes, spans, outcome);
+    if (stageNanos == null) return;
+    long durationNanos = System.nanoTime() - requestStart;
+    if (slowRequests.isSlow(durationNanos)) {
+      slowRequests.add(slowRequest(durationNanos, outcome));
+    }
+    decoded = null;
+  }
+
+  SlowRequest slowRequest(long durationNanos, String outcome) {
+    Map<Stage, Long> stages = new EnumMap<>(Stage.class);
+    for (Stage stage : Stage.values()) {
+      if (stageNanos[stage.ordinal()] > 0) stages.put(stage, stageNanos[stage.ordinal()]);
+    }
+    SlowRequests.Payload payload = SlowRequests.Payload.of(decoded);
+    return new SlowRequest(System.currentTimeMillis(), durationNanos, signal, encoding, outcome,
+        unmodifiableMap(stages), bytes, compressedBytes, payload.resources, payload.items,
+        unmodifiableList(payload.serviceNames), payload.largestAttributeKey,
+        payload.largestAttributeBytes, payload.maxValueDepth);
+  }
+
+  /** Returns a callback that records {@link Stage#STORE} before completing the delegate. */
+  Callback<Void> storeCallback(Callback<Void> delegate) {
+    return new Callback<Void>() {
+      @Override public void onSuccess(Void value) {
+        endStage(Stage.STORE);
+        delegate.onSuccess(value);
+      }
+
+      @Override public void onError(Throwable t) {
+        endStage(Stage.STORE);
+        delegate.onError(t);
+      }
+    };
+  }
+}
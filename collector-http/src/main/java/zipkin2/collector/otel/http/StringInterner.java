@@ -0,0 +1,72 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import zipkin2.internal.Nullable;
+
+/**
+ * A fixed-size, lossy intern pool for short strings that repeat across spans, such as attribute
+ * keys, span names and values like "GET" or "200".
+ *
+ * <p>Each request decodes its own copies of these strings. When storage is slow, queued spans keep
+ * those duplicates alive. Interning lets spans share one instance, so the duplicates can be
+ * collected while still young.
+ *
+ * <p>The pool is a direct-mapped table, so memory use is fixed regardless of input. Strings longer
+ * than {@link #maxLength} bypass the pool. A string is only admitted on its second consecutive
+ * sighting in its slot, so high-cardinality values, which rarely repeat, don't evict useful
+ * entries.
+ *
+ * <p>This is safe to share across threads: slots are read and written racily, but {@link String}
+ * is immutable and losing a write only costs a cache miss.
+ */
+final class StringInterner {
+  static final StringInterner NOOP = new StringInterner(0, 0);
+
+  /** 4096 slots of up to 64 chars retain at most a few hundred kilobytes. */
+  static final int DEFAULT_SIZE = 4096, DEFAULT_MAX_LENGTH = 64;
+
+  static StringInterner create() {
+    return new StringInterner(DEFAULT_SIZE, DEFAULT_MAX_LENGTH);
+  }
+
+  final String[] table;
+  final int[] doorkeeper;
+  final int mask, maxLength;
+
+  /** @param size the number of slots. Rounded up to a power of two. */
+  StringInterner(int size, int maxLength) {
+    if (size < 0) throw new IllegalArgumentException("size < 0");
+    if (maxLength < 0) throw new IllegalArgumentException("maxLength < 0");
+    int capacity = Integer.highestOneBit(size);
+    if (capacity < size) capacity <<= 1;
+    this.table = new String[capacity];
+    this.doorkeeper = new int[capacity];
+    this.mask = capacity - 1;
+    this.maxLength = maxLength;
+  }
+
+  /** Returns a previously seen instance equal to the input, or the input itself. */
+  @Nullable String intern(@Nullable String value) {
+    if (value == null || table.length == 0) return value;
+    int length = value.length();
+    if (length == 0) return "";
+    if (length > maxLength) return value;
+
+    int hash = value.hashCode();
+    int index = (hash ^ (hash >>> 16)) & mask;
+    String cached = table[index];
+    if (cached != null && (cached == value || (cached.hashCode() == hash && cached.equals(value)))) {
+      return cached;
+    }
+
+    if (doorkeeper[index] == hash) {
+      table[index] = value;
+    } else {
+      doorkeeper[index] = hash;
+    }
+    return value;
+  }
+}
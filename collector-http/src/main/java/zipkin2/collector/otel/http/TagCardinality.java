@@ -0,0 +1,143 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import zipkin2.internal.Nullable;
+
+/**
+ * Estimates the number of distinct values per tag key with a HyperLogLog sketch, and demotes keys
+ * whose estimate passes a threshold.
+ *
+ * <p>Each sketch has 2^{@value #PRECISION} one-byte registers, so about 1 KiB per key with a
+ * standard error of about 3%. At most {@link #MAX_KEYS} keys are tracked, and keys beyond that are
+ * never demoted.
+ *
+ * <p>Registers are updated without locks. A racing update can be lost, which only makes the
+ * estimate slightly lower.
+ */
+final class TagCardinality {
+  static final TagCardinality NOOP = new TagCardinality(0, TagOverflowMode.DROP);
+
+  static final int PRECISION = 10, REGISTER_COUNT = 1 << PRECISION;
+
+  static final int MAX_KEYS = 1024;
+
+  static TagCardinality create(int maxCardinality, TagOverflowMode mode) {
+    if (maxCardinality < 0) throw new IllegalArgumentException("maxCardinality < 0");
+    if (maxCardinality == 0) return NOOP;
+    return new TagCardinality(maxCardinality, mode);
+  }
+
+  final int maxCardinality;
+  final TagOverflowMode mode;
+  final ConcurrentHashMap<String, Sketch> sketches = new ConcurrentHashMap<>();
+
+  TagCardinality(int maxCardinality, TagOverflowMode mode) {
+    this.maxCardinality = maxCardinality;
+    this.mode = mode;
+  }
+
+  /** Returns true if values of this key should be dropped without converting them. */
+  boolean isDropped(String key) {
+    if (this == NOOP || mode != TagOverflowMode.DROP) return false;
+    Sketch sketch = sketches.get(key);
+    return sketch != null && sketch.demoted;
+  }
+
+  /**
+   * Adds the value to the key's sketch, and returns the value to tag, or null to drop it.
+   *
+   * @param demoted called once, when the key is demoted
+   */
+  @Nullable String record(String key, String value, Runnable demoted) {
+    if (this == NOOP) return value;
+    Sketch sketch = sketches.get(key);
+    if (sketch == null) {
+      if (sketches.size() >= MAX_KEYS) return value;
+      sketch = sketches.computeIfAbsent(key, k -> new Sketch());
+    }
+    long hash = Hashing.hash64(value);
+    if (!sketch.demoted && sketch.add(hash) && sketch.estimate() > maxCardinality) {
+      sketch.demoted = true;
+      demoted.run();
+    }
+    if (!sketch.demoted) return value;
+    if (mode == TagOverflowMode.DROP) return null;
+    return toHex(hash);
+  }
+
+  /** Returns the keys with the highest estimated cardinality, highest first. */
+  Map<String, Long> top(int limit) {
+    List<Map.Entry<String, Long>> estimates = new ArrayList<>();
+    sketches.forEach((key, sketch) ->
+        estimates.add(new SimpleImmutableEntry<>(key, sketch.estimate())));
+    estimates.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+    Map<String, Long> result = new LinkedHashMap<>();
+    for (int i = 0; i < estimates.size() && i < limit; i++) {
+      result.put(estimates.get(i).getKey(), estimates.get(i).getValue());
+    }
+    return result;
+  }
+
+  Set<String> demotedKeys() {
+    Set<String> result = new LinkedHashSet<>();
+    sketches.forEach((key, sketch) -> {
+      if (sketch.demoted) result.add(key);
+    });
+    return result;
+  }
+
+  static String toHex(long hash) {
+    char[] result = new char[16];
+    for (int i = 15; i >= 0; i--) {
+      result[i] = JsonWriter.HEX[(int) (hash & 0xf)];
+      hash >>>= 4;
+    }
+    return new String(result);
+  }
+
+  @Override public String toString() {
+    return "TagCardinality{maxCardinality=" + maxCardinality + ", mode=" + mode + "}";
+  }
+
+  static final class Sketch {
+    final byte[] registers = new byte[REGISTER_COUNT];
+    volatile boolean demoted;
+
+    /** Returns true if a register increased, which is the only time the estimate changes. */
+    boolean add(long hash) {
+      int index = (int) (hash >>> (64 - PRECISION));
+      // The position of the first set bit after the index bits, with a sentinel to bound it.
+      byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1)))
+          + 1);
+      if (registers[index] >= rank) return false;
+      registers[index] = rank;
+      return true;
+    }
+
+    long estimate() {
+      double sum = 0;
+      int zeros = 0;
+      for (byte register : registers) {
+        sum += 1.0 / (1L << register);
+        if (register == 0) zeros++;
+      }
+      double m = REGISTER_COUNT, alpha = 0.7213 / (1 + 1.079 / m);
+      double estimate = alpha * m * m / sum;
+      if (estimate <= 2.5 * m && zeros > 0) {
+        estimate = m * Math.log(m / zeros); // linear counting is more accurate for small sets
+      }
+      return Math.round(estimate);
+    }
+  }
+}
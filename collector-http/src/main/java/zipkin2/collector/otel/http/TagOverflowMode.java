@@ -0,0 +1,16 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+/**
+ * What to do with a tag once its key has more distinct values than
+ * {@link OpenTelemetryHttpCollector.Builder#maxTagCardinality(int)}.
+ */
+public enum TagOverflowMode {
+  /** Don't convert the attribute to a tag. */
+  DROP,
+  /** Replace the value with a fixed-length hash, which bounds the size of each value. */
+  HASH
+}
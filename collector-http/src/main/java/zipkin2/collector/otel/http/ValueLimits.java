@@ -0,0 +1,62 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maximum lengths, in characters, of tag values and annotations. Longer values are cut while they
+ * are converted and suffixed with {@link ProtoUtils#TRUNCATED_SUFFIX}.
+ *
+ * <p>Zero means unlimited, and is stored as {@link #UNLIMITED} so that callers compare lengths
+ * without a special case.
+ */
+final class ValueLimits {
+  static final int UNLIMITED = Integer.MAX_VALUE;
+
+  static final ValueLimits NONE = new ValueLimits(UNLIMITED, Collections.emptyMap(), UNLIMITED);
+
+  static ValueLimits create(int maxTagValueLength, Map<String, Integer> maxTagValueLengths,
+      int maxAnnotationLength) {
+    if (maxTagValueLength == 0 && maxTagValueLengths.isEmpty() && maxAnnotationLength == 0) {
+      return NONE;
+    }
+    Map<String, Integer> perKey = new LinkedHashMap<>();
+    maxTagValueLengths.forEach((key, length) -> perKey.put(key, orUnlimited(length)));
+    return new ValueLimits(orUnlimited(maxTagValueLength), perKey,
+        orUnlimited(maxAnnotationLength));
+  }
+
+  final int maxTagValueLength;
+  final Map<String, Integer> maxTagValueLengths;
+  final int maxAnnotationLength;
+
+  ValueLimits(int maxTagValueLength, Map<String, Integer> maxTagValueLengths,
+      int maxAnnotationLength) {
+    this.maxTagValueLength = maxTagValueLength;
+    this.maxTagValueLengths = maxTagValueLengths;
+    this.maxAnnotationLength = maxAnnotationLength;
+  }
+
+  /** Returns the limit for the tag key, which may be more or less than the global one. */
+  int maxTagValueLength(String key) {
+    if (maxTagValueLengths.isEmpty()) return maxTagValueLength;
+    Integer result = maxTagValueLengths.get(key);
+    return result != null ? result : maxTagValueLength;
+  }
+
+  static int orUnlimited(int maxLength) {
+    if (maxLength < 0) throw new IllegalArgumentException("maxLength < 0");
+    return maxLength == 0 ? UNLIMITED : maxLength;
+  }
+
+  @Override public String toString() {
+    return "ValueLimits{maxTagValueLength=" + maxTagValueLength
+        + ", maxTagValueLengths=" + maxTagValueLengths
+        + ", maxAnnotationLength=" + maxAnnotationLength + "}";
+  }
+}
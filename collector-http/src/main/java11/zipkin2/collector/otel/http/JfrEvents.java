@@ -0,0 +1,94 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Encoding;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Signal;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Stage;
+import zipkin2.internal.Nullable;
+
+/**
+ * Java 11+ version of {@code JfrEvents}, packaged under META-INF/versions/11.
+ *
+ * <p>Nothing is allocated until a recording has been started, as checked with
+ * {@link FlightRecorder#isInitialized()}. Both events are enabled by default, and can be disabled
+ * or given a threshold in the recording settings, ex. {@code zipkin.otel.Stage#threshold=10 ms}.
+ */
+final class JfrEvents {
+
+  @Nullable static Object beginStage() {
+    if (!FlightRecorder.isInitialized()) return null;
+    StageEvent event = new StageEvent();
+    event.begin();
+    return event;
+  }
+
+  static void endStage(@Nullable Object event, Signal signal, Encoding encoding, Stage stage) {
+    if (event == null) return;
+    StageEvent stageEvent = (StageEvent) event;
+    stageEvent.end();
+    if (!stageEvent.shouldCommit()) return;
+    stageEvent.endpoint = signal.path();
+    stageEvent.contentType = encoding.name();
+    stageEvent.stage = stage.name();
+    stageEvent.commit();
+  }
+
+  @Nullable static Object beginRequest() {
+    if (!FlightRecorder.isInitialized()) return null;
+    RequestEvent event = new RequestEvent();
+    event.begin();
+    return event;
+  }
+
+  static void endRequest(@Nullable Object event, Signal signal, Encoding encoding, long bytes,
+      int spans, String outcome) {
+    if (event == null) return;
+    RequestEvent requestEvent = (RequestEvent) event;
+    requestEvent.end();
+    if (!requestEvent.shouldCommit()) return;
+    requestEvent.endpoint = signal.path();
+    requestEvent.contentType = encoding.name();
+    requestEvent.bytes = bytes;
+    requestEvent.spans = spans;
+    requestEvent.outcome = outcome;
+    requestEvent.commit();
+  }
+
+  @Name("zipkin.otel.Request")
+  @Label("OTLP Request")
+  @Description("An OTLP/HTTP request received by the Zipkin collector")
+  @Category({"Zipkin", "Collector"})
+  @StackTrace(false)
+  static final class RequestEvent extends Event {
+    @Label("Endpoint") String endpoint;
+    @Label("Content Type") String contentType;
+    @Label("Bytes") @DataAmount long bytes;
+    @Label("Spans") int spans;
+    @Label("Outcome") String outcome;
+  }
+
+  @Name("zipkin.otel.Stage")
+  @Label("OTLP Request Stage")
+  @Description("A stage of ingesting an OTLP/HTTP request, such as decode or store")
+  @Category({"Zipkin", "Collector"})
+  @StackTrace(false)
+  static final class StageEvent extends Event {
+    @Label("Endpoint") String endpoint;
+    @Label("Content Type") String contentType;
+    @Label("Stage") String stage;
+  }
+
+  JfrEvents() {
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AttributeFilterTest {
+  @Test
+  void create_emptyAllowsAll() {
+    assertThat(AttributeFilter.create(Collections.emptyList(), null))
+        .isSameAs(AttributeFilter.ALLOW_ALL);
+    assertThat(AttributeFilter.ALLOW_ALL.dropRule("anything")).isNull();
+  }
+
+  @Test
+  void dropRule_denyList() {
+    AttributeFilter filter = AttributeFilter.create(null, asList("thread.*"));
+
+    assertThat(filter.dropRule("thread.id")).isEqualTo("thread.*");
+    assertThat(filter.dropRule("http.request.method")).isNull();
+  }
+
+  @Test
+  void dropRule_allowList() {
+    AttributeFilter filter = AttributeFilter.create(asList("http.*"), null);
+
+    assertThat(filter.dropRule("http.request.method")).isNull();
+    assertThat(filter.dropRule("thread.id")).isEqualTo(AttributeFilter.NOT_ALLOWED);
+  }
+
+  @Test
+  void dropRule_denyWinsOverAllow() {
+    AttributeFilter filter = AttributeFilter.create(asList("http.*"), asList("http.url"));
+
+    assertThat(filter.dropRule("http.url")).isEqualTo("http.url");
+    assertThat(filter.dropRule("http.route")).isNull();
+  }
+
+  @Test
+  void dropRule_decisionsBounded() {
+    AttributeFilter filter = AttributeFilter.create(null, asList("thread.*"));
+    for (int i = 0; i < AttributeFilter.MAX_CACHED_DECISIONS + 10; i++) {
+      filter.dropRule("key" + i);
+    }
+
+    assertThat(filter.decisions).hasSize(AttributeFilter.MAX_CACHED_DECISIONS);
+    assertThat(filter.dropRule("thread.id")).isEqualTo("thread.*");
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import io.opentelemetry.proto.resource.v1.Resource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import zipkin2.Span;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.TruncatedValue;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static zipkin2.collector.otel.http.ZipkinTestUtil.stringAttribute;
+
+class DefaultOtelResourceMapperTest {
+  Resource resource = Resource.newBuilder()
+      .addAttributes(stringAttribute("service.name", "frontend"))
+      .addAttributes(stringAttribute("host.name", "host-1"))
+      .addAttributes(stringAttribute("k8s.pod.name", "frontend-abcde"))
+      .addAttributes(stringAttribute("k8s.pod.uid", "1234"))
+      .build();
+
+  @Test
+  void accept_allExceptServiceName() {
+    assertThat(tags(DefaultOtelResourceMapper.create()))
+        .containsOnlyKeys("host.name", "k8s.pod.name", "k8s.pod.uid");
+  }
+
+  @Test
+  void accept_allowList() {
+    DefaultOtelResourceMapper mapper = DefaultOtelResourceMapper.newBuilder()
+        .resourceAttributeAllowList(asList("k8s.*"))
+        .build();
+
+    assertThat(tags(mapper)).containsOnlyKeys("k8s.pod.name", "k8s.pod.uid");
+  }
+
+  @Test
+  void accept_denyList() {
+    DefaultOtelResourceMapper mapper = DefaultOtelResourceMapper.newBuilder()
+        .resourceAttributeAllowList(asList("k8s.*"))
+        .resourceAttributeDenyList(asList("*.uid"))
+        .build();
+
+    assertThat(tags(mapper)).containsOnlyKeys("k8s.pod.name");
+  }
+
+  @Test
+  void accept_renamesNotPrefixed() {
+    DefaultOtelResourceMapper mapper = DefaultOtelResourceMapper.newBuilder()
+        .resourceAttributePrefix("otel.resources.")
+        .resourceAttributeRenames(Collections.singletonMap("k8s.pod.name", "pod"))
+        .build();
+
+    assertThat(tags(mapper))
+        .containsEntry("pod", "frontend-abcde")
+        .containsEntry("otel.resources.host.name", "host-1")
+        .doesNotContainKey("otel.resources.k8s.pod.name");
+  }
+
+  @Test
+  void forResource_reusesTagsForEachSpan() {
+    Consumer<Span.Builder> resourceTags = DefaultOtelResourceMapper.create().forResource(resource);
+
+    Span.Builder first = Span.newBuilder().traceId(1L, 2L).id(3L);
+    Span.Builder second = Span.newBuilder().traceId(1L, 2L).id(4L);
+    resourceTags.accept(first);
+    resourceTags.accept(second);
+
+    String firstValue = first.build().tags().get("host.name");
+    assertThat(second.build().tags().get("host.name")).isSameAs(firstValue);
+    assertThat(first.build().tags()).isEqualTo(second.build().tags());
+  }
+
+  @Test
+  void forResource_defaultsToAccept() {
+    OtelResourceMapper mapper = (resource, builder) -> builder.putTag("mapped", "true");
+    Span.Builder builder = Span.newBuilder().traceId(1L, 2L).id(3L);
+    mapper.forResource(resource).accept(builder);
+
+    assertThat(builder.build().tags()).containsEntry("mapped", "true");
+  }
+
+  @Test
+  void forResource_appliesValueLimits() {
+    List<TruncatedValue> truncated = new ArrayList<>();
+    OtelCollectorMetrics metrics = new OtelCollectorMetrics() {
+      @Override public void incrementValuesTruncated(TruncatedValue value) {
+        truncated.add(value);
+      }
+    };
+    ValueLimits valueLimits = ValueLimits.create(4, Collections.singletonMap("k8s.pod.uid", 2), 0);
+    Span.Builder builder = Span.newBuilder().traceId(1L, 2L).id(3L);
+    DefaultOtelResourceMapper.create().forResource(resource, valueLimits, metrics).accept(builder);
+
+    assertThat(builder.build().tags())
+        .containsEntry("host.name", "host...")
+        .containsEntry("k8s.pod.name", "fron...")
+        .containsEntry("k8s.pod.uid", "12...");
+    assertThat(truncated).hasSize(3).containsOnly(TruncatedValue.TAG);
+  }
+
+  Map<String, String> tags(DefaultOtelResourceMapper mapper) {
+    Span.Builder builder = Span.newBuilder().traceId(1L, 2L).id(3L);
+    mapper.accept(resource, builder);
+    return builder.build().tags();
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import org.junit.jupiter.api.Test;
+import zipkin2.Endpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EndpointCacheTest {
+  EndpointCache cache = new EndpointCache();
+
+  @Test
+  void get_sameInstanceForSameTuple() {
+    Endpoint first = cache.get("Frontend", "1.2.3.4", 8080);
+    Endpoint second = cache.get("Frontend", "1.2.3.4", 8080);
+
+    assertThat(second).isSameAs(first);
+    assertThat(first).isEqualTo(Endpoint.newBuilder()
+        .serviceName("frontend")
+        .ip("1.2.3.4")
+        .port(8080)
+        .build());
+  }
+
+  @Test
+  void get_distinguishesTuples() {
+    assertThat(cache.get("frontend", "1.2.3.4", 8080))
+        .isNotSameAs(cache.get("frontend", "1.2.3.4", 8081))
+        .isNotSameAs(cache.get("frontend", null, 8080))
+        .isNotSameAs(cache.get("backend", "1.2.3.4", 8080));
+  }
+
+  @Test
+  void get_noIpOrPort() {
+    assertThat(cache.get("frontend", null, 0))
+        .isEqualTo(Endpoint.newBuilder().serviceName("frontend").build());
+  }
+
+  @Test
+  void get_invalidIpIgnored() {
+    assertThat(cache.get("frontend", "localhost", 0))
+        .isEqualTo(Endpoint.newBuilder().serviceName("frontend").build());
+  }
+
+  @Test
+  void get_invalidPortNotCached() {
+    assertThatThrownBy(() -> cache.get("frontend", null, 65536))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(cache.cache).isEmpty();
+  }
+
+  @Test
+  void get_bounded() {
+    EndpointCache cache = new EndpointCache(2);
+    cache.get("a", null, 0);
+    cache.get("b", null, 0);
+    Endpoint c = cache.get("c", null, 0);
+
+    assertThat(cache.cache).containsOnlyKeys(new EndpointCache.Key("c", null, 0));
+    assertThat(cache.get("c", null, 0)).isSameAs(c);
+  }
+
+  @Test
+  void get_ephemeralPortChurnDoesntDisableCache() {
+    for (int port = 49152; port < 49152 + EndpointCache.DEFAULT_MAX_SIZE * 2; port++) {
+      cache.get("frontend", "1.2.3.4", port);
+    }
+    assertThat(cache.cache).hasSizeLessThanOrEqualTo(EndpointCache.DEFAULT_MAX_SIZE);
+
+    Endpoint backend = cache.get("backend", "1.2.3.5", 0);
+    assertThat(cache.get("backend", "1.2.3.5", 0)).isSameAs(backend);
+  }
+
+  @Test
+  void get_zeroMaxSizeCachesNothing() {
+    EndpointCache cache = new EndpointCache(0);
+    Endpoint a = cache.get("a", null, 0);
+
+    assertThat(cache.cache).isEmpty();
+    assertThat(cache.get("a", null, 0)).isEqualTo(a).isNotSameAs(a);
+  }
+}
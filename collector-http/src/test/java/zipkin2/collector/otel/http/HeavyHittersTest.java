@@ -0,0 +1,140 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static zipkin2.collector.otel.http.HeavyHitters.BUCKET_COUNT;
+import static zipkin2.collector.otel.http.HeavyHitters.BUCKET_NANOS;
+
+class HeavyHittersTest {
+  HeavyHitters<String> heavyHitters = new HeavyHitters<>(3);
+
+  @Test
+  void capacity_mustBePositive() {
+    assertThatThrownBy(() -> new HeavyHitters<>(0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void top_sortsBySpans() {
+    add(0L, "frontend", 10, 1000);
+    add(0L, "backend", 30, 2000);
+    add(0L, "frontend", 5, 500);
+
+    assertThat(heavyHitters.top(0L, 10))
+        .extracting(c -> c.key, c -> c.spans, c -> c.bytes, c -> c.spansError)
+        .containsExactly(tuple("backend", 30L, 2000L, 0L), tuple("frontend", 15L, 1500L, 0L));
+    assertThat(heavyHitters.top(0L, 1)).extracting(c -> c.key).containsExactly("backend");
+  }
+
+  @Test
+  void add_replacesSmallestWhenFull() {
+    add(0L, "a", 100, 100);
+    add(0L, "b", 50, 50);
+    add(0L, "c", 1, 1);
+    add(0L, "d", 2, 2);
+
+    List<HeavyHitters.Counter<String>> top = heavyHitters.top(0L, 10);
+    assertThat(top).extracting(c -> c.key).containsExactly("a", "b", "d");
+    // "d" took over the counts of "c", which bound its overestimate
+    assertThat(top.get(2)).extracting(c -> c.spans, c -> c.spansError, c -> c.bytesError)
+        .containsExactly(3L, 1L, 1L);
+  }
+
+  @Test
+  void add_replacesSmallestAfterCountsChange() {
+    add(0L, "a", 1, 1);
+    add(0L, "b", 2, 2);
+    add(0L, "c", 5, 5);
+    add(0L, "a", 10, 10); // "b" is now the smallest
+    add(0L, "d", 1, 1);
+
+    assertThat(heavyHitters.top(0L, 10)).extracting(c -> c.key)
+        .containsExactly("a", "c", "d");
+  }
+
+  @Test
+  void add_keepsHeapOrdered() {
+    heavyHitters = new HeavyHitters<>(64);
+    Random random = new Random(0L);
+    for (int i = 0; i < 10_000; i++) {
+      add(0L, "service-" + random.nextInt(200), 1 + random.nextInt(100), 1);
+    }
+
+    HeavyHitters.Bucket<String> bucket = heavyHitters.buckets[0];
+    assertThat(bucket.counters).hasSize(64);
+    for (int i = 0; i < 64; i++) {
+      HeavyHitters.Counter<String> counter = bucket.heap[i];
+      assertThat(counter.index).isEqualTo(i);
+      assertThat(bucket.counters.get(counter.key)).isSameAs(counter);
+      if (i > 0) assertThat(bucket.heap[(i - 1) / 2].spans).isLessThanOrEqualTo(counter.spans);
+    }
+  }
+
+  @Test
+  void memoryIsFixed() {
+    for (int i = 0; i < 10_000; i++) add(0L, "service-" + i, 1, 1);
+
+    for (HeavyHitters.Bucket<String> bucket : heavyHitters.buckets) {
+      assertThat(bucket.counters).hasSizeLessThanOrEqualTo(3);
+    }
+  }
+
+  @Test
+  void top_limitMustNotBeNegative() {
+    assertThatThrownBy(() -> heavyHitters.top(0L, -1))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("limit < 0");
+  }
+
+  @Test
+  void top_zeroLimit() {
+    add(0L, "frontend", 1, 1);
+
+    assertThat(heavyHitters.top(0L, 0)).isEmpty();
+  }
+
+  @Test
+  void top_mergesBucketsInWindow() {
+    add(0L, "frontend", 1, 1);
+    add(BUCKET_NANOS, "frontend", 2, 2);
+
+    assertThat(heavyHitters.top(BUCKET_NANOS, 10))
+        .extracting(c -> c.key, c -> c.spans)
+        .containsExactly(tuple("frontend", 3L));
+  }
+
+  @Test
+  void top_excludesBucketsOutsideWindow() {
+    add(0L, "frontend", 1, 1);
+    add(BUCKET_NANOS * BUCKET_COUNT, "backend", 2, 2);
+
+    assertThat(heavyHitters.top(BUCKET_NANOS * BUCKET_COUNT, 10))
+        .extracting(c -> c.key)
+        .containsExactly("backend");
+    // The bucket of "frontend" was reused
+    assertThat(heavyHitters.top(0L, 10)).isEmpty();
+  }
+
+  @Test
+  void top_negativeNanoTime() {
+    add(-1L, "frontend", 1, 1);
+
+    assertThat(heavyHitters.top(-1L, 10)).extracting(c -> c.key).containsExactly("frontend");
+  }
+
+  void add(long nanoTime, String key, long spans, long bytes) {
+    Map<String, long[]> counts = Collections.singletonMap(key, new long[] {spans, bytes});
+    heavyHitters.add(nanoTime, counts);
+  }
+}
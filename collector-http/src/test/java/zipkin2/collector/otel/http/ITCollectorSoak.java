@@ -0,0 +1,319 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import com.google.protobuf.ByteString;
+import com.linecorp.armeria.client.WebClient;
+import com.linecorp.armeria.common.AggregatedHttpResponse;
+import com.linecorp.armeria.common.HttpData;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpStatus;
+import com.linecorp.armeria.common.MediaType;
+import com.linecorp.armeria.common.RequestHeaders;
+import com.linecorp.armeria.server.Server;
+import com.linecorp.armeria.server.ServerBuilder;
+import io.netty.util.ResourceLeakDetector;
+import io.netty.util.ResourceLeakDetectorFactory;
+import io.netty.util.internal.PlatformDependent;
+import io.opentelemetry.proto.collector.logs.v1.ExportLogsServiceRequest;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.proto.common.v1.AnyValue;
+import io.opentelemetry.proto.logs.v1.LogRecord;
+import io.opentelemetry.proto.logs.v1.ResourceLogs;
+import io.opentelemetry.proto.logs.v1.ScopeLogs;
+import io.opentelemetry.proto.resource.v1.Resource;
+import io.opentelemetry.proto.trace.v1.ResourceSpans;
+import io.opentelemetry.proto.trace.v1.ScopeSpans;
+import io.opentelemetry.proto.trace.v1.Span;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import zipkin2.collector.CollectorSampler;
+import zipkin2.collector.InMemoryCollectorMetrics;
+import zipkin2.storage.InMemoryStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static zipkin2.collector.otel.http.ZipkinTestUtil.stringAttribute;
+
+/**
+ * Sends a mix of valid, empty, malformed and oversized requests to the collector for a long time,
+ * to find leaks or use-after-release of the pooled buffers it aggregates requests into.
+ *
+ * <p>This only runs when a duration is set, and should run alone, so that the leak detector is
+ * installed before Netty creates its buffers:
+ * <pre>{@code
+ * ./mvnw -pl collector-http verify -Dtest=none -Dsurefire.failIfNoSpecifiedTests=false \
+ *   -Dit.test=ITCollectorSoak -Dzipkin.otel.soakDuration=PT30M
+ * }</pre>
+ */
+@EnabledIfSystemProperty(named = "zipkin.otel.soakDuration", matches = "P.+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ITCollectorSoak {
+  static final int MAX_REQUEST_LENGTH = 1 << 20, CONCURRENCY = 16;
+  /** Pools and caches grow until they reach their working size, so allow for some slack. */
+  static final long MAX_DIRECT_GROWTH = 32L << 20, MAX_HEAP_GROWTH = 64L << 20;
+
+  static final List<String> leaks = new CopyOnWriteArrayList<>();
+
+  static {
+    // Must happen before ByteBuf classes are loaded, as they create their leak detector once.
+    ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+    ResourceLeakDetectorFactory.setResourceLeakDetectorFactory(new RecordingLeakDetectorFactory());
+  }
+
+  InMemoryStorage store = InMemoryStorage.newBuilder().maxSpanCount(10_000).build();
+  InMemoryCollectorMetrics metrics = new InMemoryCollectorMetrics();
+  OpenTelemetryHttpCollector collector;
+  Server server;
+  WebClient client;
+
+  @BeforeAll
+  void startServer() {
+    collector = OpenTelemetryHttpCollector.newBuilder()
+        .metrics(metrics)
+        .sampler(CollectorSampler.ALWAYS_SAMPLE)
+        .storage(store)
+        .build()
+        .start();
+    ServerBuilder serverBuilder = Server.builder().http(0).maxRequestLength(MAX_REQUEST_LENGTH);
+    collector.reconfigure(serverBuilder);
+    server = serverBuilder.build();
+    server.start().join();
+    client = WebClient.of("http://127.0.0.1:" + server.activeLocalPort());
+  }
+
+  @AfterAll
+  void stopServer() throws IOException {
+    store.close();
+    collector.close();
+    server.stop().join();
+  }
+
+  @Test
+  void soak() throws Exception {
+    Duration duration = Duration.parse(System.getProperty("zipkin.otel.soakDuration"));
+    List<SoakRequest> requests = requests();
+
+    // Warm up pools, caches and the JIT before taking the baseline.
+    long warmupEnd = System.nanoTime() + Math.min(duration.toNanos() / 10, 60_000_000_000L);
+    while (System.nanoTime() < warmupEnd) sendAll(requests);
+    long directBaseline = directMemory(), heapBaseline = heapAfterGc();
+
+    long end = System.nanoTime() + duration.toNanos();
+    long nextCheck = System.nanoTime();
+    while (System.nanoTime() < end) {
+      sendAll(requests);
+      if (System.nanoTime() >= nextCheck) {
+        // Leaks are only reported once a leaked buffer is collected and another is allocated.
+        System.gc();
+        assertThat(leaks).isEmpty();
+        assertThat(directMemory() - directBaseline)
+            .as("direct memory growth").isLessThan(MAX_DIRECT_GROWTH);
+        nextCheck = System.nanoTime() + 10_000_000_000L;
+      }
+    }
+
+    sendAll(requests);
+    assertThat(leaks).isEmpty();
+    assertThat(directMemory() - directBaseline)
+        .as("direct memory growth").isLessThan(MAX_DIRECT_GROWTH);
+    assertThat(heapAfterGc() - heapBaseline)
+        .as("heap growth").isLessThan(MAX_HEAP_GROWTH);
+    assertThat(metrics.messages()).isPositive();
+    assertThat(metrics.messagesDropped()).isPositive(); // from malformed requests
+  }
+
+  void sendAll(List<SoakRequest> requests) {
+    List<CompletableFuture<Void>> responses = new ArrayList<>();
+    for (int i = 0; i < CONCURRENCY; i++) {
+      for (SoakRequest request : requests) {
+        responses.add(client.execute(request.headers, HttpData.wrap(request.body))
+            .aggregate()
+            .thenAccept(response -> assertThat(response)
+                .as(request.name).matches(request.expected, "expected status")));
+      }
+    }
+    CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).join();
+  }
+
+  static List<SoakRequest> requests() throws IOException {
+    byte[] traces = traces().toByteArray(), logs = logs().toByteArray();
+    byte[] tracesJson = TRACES_JSON.getBytes(StandardCharsets.UTF_8);
+    byte[] malformed = new byte[1024];
+    new Random(1L).nextBytes(malformed);
+    byte[] oversized = new byte[MAX_REQUEST_LENGTH + 1];
+
+    Predicate<AggregatedHttpResponse> accepted = r -> r.status().equals(HttpStatus.ACCEPTED);
+    Predicate<AggregatedHttpResponse> failed = r -> !r.status().isSuccess();
+    List<SoakRequest> requests = new ArrayList<>();
+    requests.add(new SoakRequest("protobuf traces", "/v1/traces", MediaType.PROTOBUF, null,
+        traces, accepted));
+    requests.add(new SoakRequest("protobuf logs", "/v1/logs", MediaType.PROTOBUF, null,
+        logs, accepted));
+    requests.add(new SoakRequest("json traces", "/v1/traces", MediaType.JSON, null,
+        tracesJson, accepted));
+    requests.add(new SoakRequest("gzip protobuf traces", "/v1/traces", MediaType.PROTOBUF,
+        "gzip", gzip(traces), accepted));
+    requests.add(new SoakRequest("gzip json traces", "/v1/traces", MediaType.JSON, "gzip",
+        gzip(tracesJson), accepted));
+    requests.add(new SoakRequest("empty", "/v1/traces", MediaType.PROTOBUF, null,
+        new byte[0], accepted));
+    requests.add(new SoakRequest("malformed protobuf", "/v1/traces", MediaType.PROTOBUF, null,
+        malformed, failed));
+    requests.add(new SoakRequest("malformed protobuf logs", "/v1/logs", MediaType.PROTOBUF,
+        null, malformed, failed));
+    requests.add(new SoakRequest("malformed json", "/v1/traces", MediaType.JSON, null,
+        "{\"resourceSpans\": [".getBytes(StandardCharsets.UTF_8), failed));
+    requests.add(new SoakRequest("malformed gzip", "/v1/traces", MediaType.PROTOBUF, "gzip",
+        malformed, failed));
+    requests.add(new SoakRequest("oversized", "/v1/traces", MediaType.PROTOBUF, null,
+        oversized, r -> r.status().equals(HttpStatus.REQUEST_ENTITY_TOO_LARGE)));
+    return requests;
+  }
+
+  static final class SoakRequest {
+    final String name;
+    final RequestHeaders headers;
+    final byte[] body;
+    final Predicate<AggregatedHttpResponse> expected;
+
+    SoakRequest(String name, String path, MediaType contentType, String contentEncoding,
+        byte[] body, Predicate<AggregatedHttpResponse> expected) {
+      this.name = name;
+      RequestHeaders headers = RequestHeaders.of(HttpMethod.POST, path,
+          HttpHeaderNames.CONTENT_TYPE, contentType);
+      if (contentEncoding != null) {
+        headers = headers.toBuilder().add(HttpHeaderNames.CONTENT_ENCODING, contentEncoding)
+            .build();
+      }
+      this.headers = headers;
+      this.body = body;
+      this.expected = expected;
+    }
+  }
+
+  static ExportTraceServiceRequest traces() {
+    ScopeSpans.Builder scopeSpans = ScopeSpans.newBuilder();
+    for (int i = 0; i < 50; i++) {
+      scopeSpans.addSpans(Span.newBuilder()
+          .setTraceId(ByteString.fromHex("5b8efff798038103d269b633813fc60c"))
+          .setSpanId(ByteString.fromHex(String.format("eee19b7ec3c1b1%02x", i)))
+          .setName("get /users/" + i)
+          .setStartTimeUnixNano(1544712660000000000L)
+          .setEndTimeUnixNano(1544712661000000000L)
+          .addAttributes(stringAttribute("http.method", "GET"))
+          .addAttributes(stringAttribute("db.statement", "select * from users where id = " + i))
+          .addEvents(Span.Event.newBuilder().setName("retry")
+              .setTimeUnixNano(1544712660500000000L)));
+    }
+    return ExportTraceServiceRequest.newBuilder()
+        .addResourceSpans(ResourceSpans.newBuilder()
+            .setResource(Resource.newBuilder()
+                .addAttributes(stringAttribute("service.name", "soak")))
+            .addScopeSpans(scopeSpans))
+        .build();
+  }
+
+  static ExportLogsServiceRequest logs() {
+    ScopeLogs.Builder scopeLogs = ScopeLogs.newBuilder();
+    for (int i = 0; i < 50; i++) {
+      scopeLogs.addLogRecords(LogRecord.newBuilder()
+          .setTraceId(ByteString.fromHex("5b8efff798038103d269b633813fc60c"))
+          .setSpanId(ByteString.fromHex(String.format("eee19b7ec3c1b1%02x", i)))
+          .setTimeUnixNano(1544712660500000000L)
+          .setSeverityNumberValue(9)
+          .addAttributes(stringAttribute("event.name", "cache.miss"))
+          .setBody(AnyValue.newBuilder().setStringValue("key " + i)));
+      // Not an event, so skipped while decoding.
+      scopeLogs.addLogRecords(LogRecord.newBuilder()
+          .setBody(AnyValue.newBuilder().setStringValue("plain log " + i)));
+    }
+    return ExportLogsServiceRequest.newBuilder()
+        .addResourceLogs(ResourceLogs.newBuilder()
+            .setResource(Resource.newBuilder()
+                .addAttributes(stringAttribute("service.name", "soak")))
+            .addScopeLogs(scopeLogs))
+        .build();
+  }
+
+  static final String TRACES_JSON = """
+      {
+        "resourceSpans": [{
+          "resource": {
+            "attributes": [{"key": "service.name", "value": {"stringValue": "soak"}}]
+          },
+          "scopeSpans": [{
+            "spans": [{
+              "traceId": "5B8EFFF798038103D269B633813FC60C",
+              "spanId": "EEE19B7EC3C1B174",
+              "name": "get",
+              "startTimeUnixNano": "1544712660000000000",
+              "endTimeUnixNano": "1544712661000000000",
+              "attributes": [{"key": "http.method", "value": {"stringValue": "GET"}}]
+            }]
+          }]
+        }]
+      }""";
+
+  static byte[] gzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+      gzip.write(bytes);
+    }
+    return gzipped.toByteArray();
+  }
+
+  /** Netty's own count of direct memory, if it tracks it, plus JDK direct buffers. */
+  static long directMemory() {
+    long result = Math.max(0L, PlatformDependent.usedDirectMemory());
+    for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+      if (pool.getName().equals("direct")) result += pool.getMemoryUsed();
+    }
+    return result;
+  }
+
+  static long heapAfterGc() throws InterruptedException {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(100);
+    }
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  /** Records leaks instead of only logging them, so that the test can fail on them. */
+  static final class RecordingLeakDetectorFactory extends ResourceLeakDetectorFactory {
+    @Override @SuppressWarnings("deprecation")
+    public <T> ResourceLeakDetector<T> newResourceLeakDetector(Class<T> resource,
+        int samplingInterval, long maxActive) {
+      return new ResourceLeakDetector<T>(resource, samplingInterval) {
+        @Override protected void reportTracedLeak(String resourceType, String records) {
+          leaks.add(resourceType + records);
+          super.reportTracedLeak(resourceType, records);
+        }
+
+        @Override protected void reportUntracedLeak(String resourceType) {
+          leaks.add(resourceType);
+          super.reportUntracedLeak(resourceType);
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import com.linecorp.armeria.common.MediaType;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Signal;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Stage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies the Java 11+ version of {@link JfrEvents}. Surefire tests run against
+ * {@code target/classes}, which only has the no-op Java 8 version. Failsafe runs this against the
+ * packaged multi-release jar, so this also checks that packaging.
+ */
+class ITJfrEvents {
+  @Test
+  void emitsRequestAndStageEvents() throws Exception {
+    assertThat(JfrEvents.class.getDeclaredClasses())
+        .withFailMessage("JfrEvents from META-INF/versions/11 wasn't loaded: run with failsafe")
+        .isNotEmpty();
+
+    List<RecordedEvent> events = new CopyOnWriteArrayList<>();
+    CountDownLatch requestRecorded = new CountDownLatch(1);
+    try (RecordingStream stream = new RecordingStream()) {
+      stream.enable("zipkin.otel.Request");
+      stream.enable("zipkin.otel.Stage");
+      stream.onEvent("zipkin.otel.Stage", events::add);
+      stream.onEvent("zipkin.otel.Request", event -> {
+        events.add(event);
+        requestRecorded.countDown();
+      });
+      stream.setMaxAge(Duration.ofMinutes(1));
+      stream.startAsync();
+
+      StageRecorder stages = new StageRecorder(OtelCollectorMetrics.NOOP_METRICS,
+          SlowRequests.NOOP, Signal.TRACES, MediaType.PROTOBUF);
+      stages.bytes(100);
+      stages.endStage(Stage.DECODE);
+      stages.spans(2);
+      stages.endRequest(null);
+
+      assertThat(requestRecorded.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    assertThat(events).anySatisfy(event -> {
+      assertThat(event.getEventType().getName()).isEqualTo("zipkin.otel.Stage");
+      assertThat(event.getString("endpoint")).isEqualTo("/v1/traces");
+      assertThat(event.getString("contentType")).isEqualTo("PROTOBUF");
+      assertThat(event.getString("stage")).isEqualTo("DECODE");
+    });
+    assertThat(events).anySatisfy(event -> {
+      assertThat(event.getEventType().getName()).isEqualTo("zipkin.otel.Request");
+      assertThat(event.getString("endpoint")).isEqualTo("/v1/traces");
+      assertThat(event.getLong("bytes")).isEqualTo(100L);
+      assertThat(event.getInt("spans")).isEqualTo(2);
+      assertThat(event.getString("outcome")).isEqualTo("accepted");
+    });
+  }
+}
@@ -11,6 +11,7 @@ import com.linecorp.armeria.server.annotation.Post;
 import com.linecorp.armeria.server.annotation.Produces;
 import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -25,6 +26,7 @@ import org.testcontainers.Testcontainers;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.output.Slf4jLogConsumer;
 import org.testcontainers.utility.MountableFile;
+import zipkin2.Annotation;
 import zipkin2.Span;
 import zipkin2.collector.CollectorSampler;
 import zipkin2.collector.InMemoryCollectorMetrics;
@@ -92,9 +94,9 @@ public class ITLogEventEmission {
       Awaitility.waitAtMost(Duration.ofMinutes(1)).untilAsserted(() -> {
         List<List<Span>> traces = store.getTraces();
         assertThat(traces).isNotEmpty();
-        assertThat(traces.get(0)).hasSize(3);
+        assertThat(splitLogEvents(traces.get(0))).hasSize(3);
       });
-      List<Span> spans = store.getTraces().get(0);
+      List<Span> spans = splitLogEvents(store.getTraces().get(0));
       spans.sort(
           Comparator.comparing(Span::kind, Comparator.nullsFirst(Comparator.naturalOrder())));
       String spanId = spans.get(0).id();
@@ -165,9 +167,9 @@ public class ITLogEventEmission {
       Awaitility.waitAtMost(Duration.ofMinutes(1)).untilAsserted(() -> {
         List<List<Span>> traces = store.getTraces();
         assertThat(traces).isNotEmpty();
-        assertThat(traces.get(0)).hasSize(3);
+        assertThat(splitLogEvents(traces.get(0))).hasSize(3);
       });
-      List<Span> spans = store.getTraces().get(0);
+      List<Span> spans = splitLogEvents(store.getTraces().get(0));
       String spanId = spans.get(0).id();
       String traceId = spans.get(0).traceId();
       assertThat(spans.get(0).kind()).isNull();
@@ -237,9 +239,9 @@ public class ITLogEventEmission {
       Awaitility.waitAtMost(Duration.ofMinutes(1)).untilAsserted(() -> {
         List<List<Span>> traces = store.getTraces();
         assertThat(traces).isNotEmpty();
-        assertThat(traces.get(0)).hasSize(4);
+        assertThat(splitLogEvents(traces.get(0))).hasSize(4);
       });
-      List<Span> spans = store.getTraces().get(0);
+      List<Span> spans = splitLogEvents(store.getTraces().get(0));
       spans.sort(
           Comparator.comparing(Span::kind, Comparator.nullsFirst(Comparator.naturalOrder())));
       String spanId = spans.get(0).id();
@@ -350,9 +352,9 @@ public class ITLogEventEmission {
       Awaitility.waitAtMost(Duration.ofMinutes(1)).untilAsserted(() -> {
         List<List<Span>> traces = store.getTraces();
         assertThat(traces).isNotEmpty();
-        assertThat(traces.get(0)).hasSize(3);
+        assertThat(splitLogEvents(traces.get(0))).hasSize(3);
       });
-      List<Span> spans = store.getTraces().get(0);
+      List<Span> spans = splitLogEvents(store.getTraces().get(0));
       spans.sort(
           Comparator.comparing(Span::kind, Comparator.nullsFirst(Comparator.naturalOrder())));
       String spanId = spans.get(0).id();
@@ -434,6 +436,25 @@ public class ITLogEventEmission {
     }
   }
 
+  /**
+   * Log events for the same span in one request are coalesced into one span. Whether events share
+   * a request depends on SDK batching, so split them back into one span per event.
+   */
+  static List<Span> splitLogEvents(List<Span> spans) {
+    List<Span> result = new ArrayList<>();
+    for (Span span : spans) {
+      if (span.kind() != null || span.annotations().size() < 2) {
+        result.add(span);
+        continue;
+      }
+      for (Annotation annotation : span.annotations()) {
+        result.add(span.toBuilder().clearAnnotations().addAnnotation(annotation.timestamp(),
+            annotation.value()).build());
+      }
+    }
+    return result;
+  }
+
   static class ChatCompletionService {
     @Post("/v1/chat/completions")
     @Consumes("application/json")
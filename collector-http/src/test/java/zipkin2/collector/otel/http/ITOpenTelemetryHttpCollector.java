@@ -30,6 +30,7 @@ import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
 import io.opentelemetry.semconv.NetworkAttributes;
 import io.opentelemetry.semconv.OtelAttributes;
 import io.opentelemetry.semconv.ServiceAttributes;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
@@ -40,8 +41,10 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 import org.awaitility.Awaitility;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -74,6 +77,10 @@ class ITOpenTelemetryHttpCollector {
 
   OpenTelemetryHttpCollector collector;
 
+  List<String> stages = new CopyOnWriteArrayList<>();
+
+  List<String> distributions = new CopyOnWriteArrayList<>();
+
   static int port = ZipkinTestUtil.getFreePort();
 
   static Tracer tracer = getTracer(port);
@@ -149,8 +156,21 @@ class ITOpenTelemetryHttpCollector {
     store = InMemoryStorage.newBuilder().build();
     metrics = new InMemoryCollectorMetrics();
 
+    stages.clear();
+    distributions.clear();
     collector = OpenTelemetryHttpCollector.newBuilder()
         .metrics(metrics)
+        .otelCollectorMetrics(new OtelCollectorMetrics() {
+          @Override public void recordStage(Signal signal, Encoding encoding, Stage stage,
+              long durationNanos) {
+            stages.add(signal + " " + encoding + " " + stage);
+          }
+
+          @Override public void recordDistribution(Signal signal, Encoding encoding,
+              Distribution distribution, long value) {
+            distributions.add(signal + " " + encoding + " " + distribution + " " + value);
+          }
+        })
         .sampler(CollectorSampler.ALWAYS_SAMPLE)
         .storage(store)
         .build()
@@ -526,6 +546,62 @@ class ITOpenTelemetryHttpCollector {
         .untilAsserted(() -> assertThat(store.acceptedSpanCount()).isEqualTo(1));
     assertThat(metrics.spans()).isEqualTo(1);
     assertThat(metrics.messages()).isEqualTo(1);
+    assertThat(stages).containsExactly(
+        "TRACES JSON AGGREGATE",
+        "TRACES JSON DECODE",
+        "TRACES JSON FIX_JSON_IDS",
+        "TRACES JSON TRANSLATE",
+        "TRACES JSON STORE");
+    assertThat(distributions).containsExactly(
+        "TRACES JSON REQUEST_BYTES " + json.length(),
+        "TRACES JSON SPAN_ATTRIBUTES 0",
+        "TRACES JSON SPAN_EVENTS 0",
+        "TRACES JSON REQUEST_RESOURCES 1",
+        "TRACES JSON REQUEST_ITEMS 1");
+  }
+
+  @Test
+  void compressedSpanJson() throws Exception {
+    String json = """
+        {
+          "resourceSpans": [{
+            "scopeSpans": [{
+              "spans": [{
+                "traceId": "5B8EFFF798038103D269B633813FC60C",
+                "spanId": "EEE19B7EC3C1B174",
+                "name": "get",
+                "attributes": [{"key": "http.method", "value": {"stringValue": "GET"}}],
+                "events": [{"timeUnixNano": "1544712660500000000", "name": "retry"}]
+              }]
+            }]
+          }]
+        }""";
+    ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+      gzip.write(json.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+    URL url = URI.create("http://localhost:" + port + "/v1/traces").toURL();
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestMethod("POST");
+    connection.setDoOutput(true);
+    connection.setRequestProperty("Content-Type", "application/json");
+    connection.setRequestProperty("Content-Encoding", "gzip");
+    try (OutputStream os = connection.getOutputStream()) {
+      gzipped.writeTo(os);
+    }
+    int responseCode = connection.getResponseCode();
+    connection.disconnect();
+    assertThat(responseCode).isEqualTo(HttpURLConnection.HTTP_ACCEPTED);
+    Awaitility.waitAtMost(Duration.ofMillis(200))
+        .untilAsserted(() -> assertThat(store.acceptedSpanCount()).isEqualTo(1));
+    assertThat(distributions).containsExactly(
+        "TRACES JSON REQUEST_BYTES " + json.length(),
+        "TRACES JSON REQUEST_COMPRESSED_BYTES " + gzipped.size(),
+        "TRACES JSON SPAN_ATTRIBUTES 1",
+        "TRACES JSON SPAN_EVENTS 1",
+        "TRACES JSON REQUEST_RESOURCES 1",
+        "TRACES JSON REQUEST_ITEMS 1");
   }
 
   @Test
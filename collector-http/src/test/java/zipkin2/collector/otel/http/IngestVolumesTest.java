@@ -0,0 +1,78 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.proto.common.v1.AnyValue;
+import io.opentelemetry.proto.common.v1.KeyValue;
+import io.opentelemetry.proto.resource.v1.Resource;
+import io.opentelemetry.proto.trace.v1.ResourceSpans;
+import io.opentelemetry.proto.trace.v1.ScopeSpans;
+import io.opentelemetry.proto.trace.v1.Span;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class IngestVolumesTest {
+  IngestVolumes ingestVolumes = IngestVolumes.create(10);
+
+  @Test
+  void create_zeroIsNoop() {
+    assertThat(IngestVolumes.create(0)).isSameAs(IngestVolumes.NOOP);
+    IngestVolumes.NOOP.record(request(), 0L);
+    assertThat(IngestVolumes.NOOP.topServices(0L, 10)).isEmpty();
+    assertThat(IngestVolumes.NOOP.topSpanNames(0L, 10)).isEmpty();
+  }
+
+  @Test
+  void top_limitMustNotBeNegative() {
+    for (IngestVolumes volumes : new IngestVolumes[] {ingestVolumes, IngestVolumes.NOOP}) {
+      assertThatThrownBy(() -> volumes.topServices(0L, -1))
+          .isInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> volumes.topSpanNames(0L, -1))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+  }
+
+  @Test
+  void record() {
+    ExportTraceServiceRequest request = request();
+    ingestVolumes.record(request, 0L);
+
+    assertThat(ingestVolumes.topServices(0L, 10))
+        .extracting(IngestVolume::serviceName, IngestVolume::spanName, IngestVolume::spans,
+            IngestVolume::bytes)
+        .containsExactly(
+            tuple("frontend", null, 3L,
+                (long) request.getResourceSpans(0).getSerializedSize()),
+            tuple(IngestVolumes.UNKNOWN_SERVICE, null, 1L,
+                (long) request.getResourceSpans(1).getSerializedSize()));
+    assertThat(ingestVolumes.topSpanNames(0L, 10))
+        .extracting(IngestVolume::serviceName, IngestVolume::spanName, IngestVolume::spans)
+        .containsExactlyInAnyOrder(
+            tuple("frontend", "get", 2L),
+            tuple("frontend", "post", 1L),
+            tuple(IngestVolumes.UNKNOWN_SERVICE, "get", 1L));
+  }
+
+  static ExportTraceServiceRequest request() {
+    return ExportTraceServiceRequest.newBuilder()
+        .addResourceSpans(ResourceSpans.newBuilder()
+            .setResource(Resource.newBuilder().addAttributes(KeyValue.newBuilder()
+                .setKey("service.name")
+                .setValue(AnyValue.newBuilder().setStringValue("frontend"))))
+            .addScopeSpans(ScopeSpans.newBuilder()
+                .addSpans(Span.newBuilder().setName("get"))
+                .addSpans(Span.newBuilder().setName("post")))
+            .addScopeSpans(ScopeSpans.newBuilder()
+                .addSpans(Span.newBuilder().setName("get"))))
+        .addResourceSpans(ResourceSpans.newBuilder()
+            .addScopeSpans(ScopeSpans.newBuilder()
+                .addSpans(Span.newBuilder().setName("get"))))
+        .build();
+  }
+}
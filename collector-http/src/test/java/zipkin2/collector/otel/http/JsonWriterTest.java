@@ -0,0 +1,90 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import com.google.protobuf.ByteString;
+import io.opentelemetry.proto.common.v1.AnyValue;
+import io.opentelemetry.proto.common.v1.KeyValue;
+import io.opentelemetry.proto.common.v1.KeyValueList;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonWriterTest {
+  StringBuilder json = new StringBuilder();
+
+  @Test
+  void writeString_escapes() {
+    JsonWriter.writeString(json, "a\"b\\c\nd\re\tf\bg\fh\u0001i\u001fj");
+
+    assertThat(json).hasToString("\"a\\\"b\\\\c\\nd\\re\\tf\\bg\\fh\\u0001i\\u001fj\"");
+  }
+
+  @Test
+  void writeString_unescaped() {
+    JsonWriter.writeString(json, "h\u00e9llo w\u00f6rld \u2603");
+
+    assertThat(json).hasToString("\"h\u00e9llo w\u00f6rld \u2603\"");
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "ca", "cafe", "cafeba", "cafebabe", "cafebabeca"})
+  void writeBase64(String hex) {
+    ByteString bytes = ByteString.fromHex(hex);
+    JsonWriter.writeBase64(json, bytes);
+
+    assertThat(json).hasToString(
+        "\"" + Base64.getEncoder().encodeToString(bytes.toByteArray()) + "\"");
+  }
+
+  @Test
+  void writeBase64_stopsAtLimit() {
+    JsonWriter.writeBase64(json, ByteString.copyFrom(new byte[30_000]), 10);
+
+    assertThat(json.length()).isBetween(10, 13);
+    assertThat(json).startsWith("\"AAAA");
+  }
+
+  @Test
+  void writeValue_nonFiniteDoubleIsString() {
+    JsonWriter.writeValue(json, AnyValue.newBuilder().setDoubleValue(Double.NaN).build());
+
+    assertThat(json).hasToString("\"NaN\"");
+  }
+
+  @Test
+  void writeValue_depthBounded() {
+    AnyValue value = AnyValue.newBuilder().setStringValue("leaf").build();
+    for (int i = 0; i < JsonWriter.MAX_DEPTH + 10; i++) {
+      value = AnyValue.newBuilder().setKvlistValue(KeyValueList.newBuilder()
+          .addValues(KeyValue.newBuilder().setKey("k").setValue(value))).build();
+    }
+    JsonWriter.writeValue(json, value);
+
+    assertThat(json.toString())
+        .startsWith("{\"k\":{\"k\":")
+        .contains("\"" + JsonWriter.TRUNCATED + "\"")
+        .doesNotContain("leaf");
+  }
+
+  @Test
+  void buffer_reused() {
+    StringBuilder buffer = JsonWriter.buffer();
+    buffer.append("dirty");
+
+    assertThat(JsonWriter.buffer()).isSameAs(buffer).isEmpty();
+  }
+
+  @Test
+  void buffer_largeNotRetained() {
+    StringBuilder buffer = JsonWriter.buffer();
+    buffer.append("x".repeat(JsonWriter.MAX_RETAINED_CAPACITY + 1));
+
+    assertThat(JsonWriter.buffer()).isNotSameAs(buffer).isEmpty();
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeyMatcherTest {
+  @Test
+  void compile_emptyIsEmpty() {
+    assertThat(KeyMatcher.compile(null)).isSameAs(KeyMatcher.EMPTY);
+    assertThat(KeyMatcher.compile(Collections.emptyList())).isSameAs(KeyMatcher.EMPTY);
+    assertThat(KeyMatcher.compile(asList("")).isEmpty()).isTrue();
+  }
+
+  @Test
+  void compile_nullPattern() {
+    assertThatThrownBy(() -> KeyMatcher.compile(asList("a", null)))
+        .isInstanceOf(NullPointerException.class);
+  }
+
+  @Test
+  void match_exact() {
+    KeyMatcher matcher = KeyMatcher.compile(asList("thread.id"));
+
+    assertThat(matcher.match("thread.id")).isEqualTo("thread.id");
+    assertThat(matcher.match("thread.name")).isNull();
+    assertThat(matcher.match("thread")).isNull();
+  }
+
+  @Test
+  void match_prefix() {
+    KeyMatcher matcher = KeyMatcher.compile(asList("code.*"));
+
+    assertThat(matcher.match("code.function")).isEqualTo("code.*");
+    assertThat(matcher.match("code.")).isEqualTo("code.*");
+    assertThat(matcher.match("code")).isNull();
+    assertThat(matcher.match("thread.id")).isNull();
+  }
+
+  @Test
+  void match_glob() {
+    KeyMatcher matcher = KeyMatcher.compile(asList("http.*.header.*", "k?y"));
+
+    assertThat(matcher.match("http.request.header.x-b3")).isEqualTo("http.*.header.*");
+    assertThat(matcher.match("http.request.method")).isNull();
+    assertThat(matcher.match("key")).isEqualTo("k?y");
+    assertThat(matcher.match("kkey")).isNull();
+  }
+
+  @Test
+  void match_regexCharactersAreLiteral() {
+    KeyMatcher matcher = KeyMatcher.compile(asList("a.b*c"));
+
+    assertThat(matcher.match("a.bxxc")).isEqualTo("a.b*c");
+    assertThat(matcher.match("axbxxc")).isNull();
+  }
+}
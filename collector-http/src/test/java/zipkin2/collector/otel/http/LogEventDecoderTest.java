@@ -0,0 +1,137 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.opentelemetry.proto.collector.logs.v1.ExportLogsServiceRequest;
+import io.opentelemetry.proto.common.v1.AnyValue;
+import io.opentelemetry.proto.common.v1.InstrumentationScope;
+import io.opentelemetry.proto.logs.v1.LogRecord;
+import io.opentelemetry.proto.logs.v1.ResourceLogs;
+import io.opentelemetry.proto.logs.v1.ScopeLogs;
+import io.opentelemetry.proto.resource.v1.Resource;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static zipkin2.collector.otel.http.ZipkinTestUtil.stringAttribute;
+
+class LogEventDecoderTest {
+  static final ByteString TRACE_ID = ByteString.fromHex("6b221d5bc9e6496c6b221d5bc9e6496c");
+  static final ByteString SPAN_ID = ByteString.fromHex("7180c278b62e8f6a");
+
+  LogRecord event = LogRecord.newBuilder()
+      .setTraceId(TRACE_ID)
+      .setSpanId(SPAN_ID)
+      .setTimeUnixNano(1505855794000000L)
+      .addAttributes(stringAttribute("thread.name", "main"))
+      .addAttributes(stringAttribute("event.name", "demo.event"))
+      .setBody(AnyValue.newBuilder().setStringValue("Hello World!"))
+      .build();
+  LogRecord notEvent = event.toBuilder()
+      .removeAttributes(1)
+      .setBody(AnyValue.newBuilder().setStringValue("a".repeat(10000)))
+      .build();
+  LogRecord noSpanId = event.toBuilder().clearSpanId().build();
+  LogRecord noTraceId = event.toBuilder().clearTraceId().build();
+  Resource resource = Resource.newBuilder()
+      .addAttributes(stringAttribute("service.name", "frontend"))
+      .build();
+  InstrumentationScope scope = InstrumentationScope.newBuilder().setName("demo").build();
+
+  @Test
+  void decode_keepsOnlyEvents() throws Exception {
+    ExportLogsServiceRequest request = ExportLogsServiceRequest.newBuilder()
+        .addResourceLogs(ResourceLogs.newBuilder()
+            .setResource(resource)
+            .setSchemaUrl("https://opentelemetry.io/schemas/1.21.0")
+            .addScopeLogs(ScopeLogs.newBuilder()
+                .setScope(scope)
+                .addLogRecords(notEvent)
+                .addLogRecords(event)
+                .addLogRecords(noSpanId)
+                .addLogRecords(noTraceId)))
+        .build();
+
+    assertThat(decode(request)).isEqualTo(ExportLogsServiceRequest.newBuilder()
+        .addResourceLogs(ResourceLogs.newBuilder()
+            .setResource(resource)
+            .setSchemaUrl("https://opentelemetry.io/schemas/1.21.0")
+            .addScopeLogs(ScopeLogs.newBuilder()
+                .setScope(scope)
+                .addLogRecords(event)))
+        .build());
+  }
+
+  @Test
+  void decode_omitsResourcesAndScopesWithoutEvents() throws Exception {
+    ExportLogsServiceRequest request = ExportLogsServiceRequest.newBuilder()
+        .addResourceLogs(ResourceLogs.newBuilder()
+            .setResource(resource)
+            .addScopeLogs(ScopeLogs.newBuilder().setScope(scope).addLogRecords(notEvent)))
+        .addResourceLogs(ResourceLogs.newBuilder()
+            .addScopeLogs(ScopeLogs.newBuilder().addLogRecords(noSpanId))
+            .addScopeLogs(ScopeLogs.newBuilder().addLogRecords(event)))
+        .build();
+
+    assertThat(decode(request)).isEqualTo(ExportLogsServiceRequest.newBuilder()
+        .addResourceLogs(ResourceLogs.newBuilder()
+            .addScopeLogs(ScopeLogs.newBuilder().addLogRecords(event)))
+        .build());
+  }
+
+  @Test
+  void decode_sameSpansAsParsing() throws Exception {
+    LogRecord otherSpan =
+        event.toBuilder().setSpanId(ByteString.fromHex("216a2aea45d08fc9")).build();
+    ExportLogsServiceRequest request = ExportLogsServiceRequest.newBuilder()
+        .addResourceLogs(ResourceLogs.newBuilder()
+            .setResource(resource)
+            .addScopeLogs(ScopeLogs.newBuilder()
+                .addLogRecords(event)
+                .addLogRecords(notEvent)
+                .addLogRecords(otherSpan)))
+        .build();
+    LogEventTranslator translator = LogEventTranslator.create();
+
+    assertThat(translator.translate(decode(request)))
+        .isEqualTo(translator.translate(request));
+  }
+
+  @Test
+  void decode_directBufferWithOffset() throws Exception {
+    ExportLogsServiceRequest request = ExportLogsServiceRequest.newBuilder()
+        .addResourceLogs(ResourceLogs.newBuilder()
+            .addScopeLogs(ScopeLogs.newBuilder().addLogRecords(notEvent).addLogRecords(event)))
+        .build();
+    byte[] bytes = request.toByteArray();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 3);
+    buffer.position(3);
+    buffer.put(bytes);
+    buffer.position(3);
+
+    assertThat(LogEventDecoder.decode(buffer).getResourceLogs(0).getScopeLogs(0)
+        .getLogRecordsList()).containsExactly(event);
+  }
+
+  @Test
+  void decode_truncated() {
+    byte[] bytes = ExportLogsServiceRequest.newBuilder()
+        .addResourceLogs(ResourceLogs.newBuilder()
+            .addScopeLogs(ScopeLogs.newBuilder().addLogRecords(event)))
+        .build().toByteArray();
+
+    assertThatThrownBy(
+        () -> LogEventDecoder.decode(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 1))))
+        .isInstanceOf(InvalidProtocolBufferException.class);
+  }
+
+  static ExportLogsServiceRequest decode(ExportLogsServiceRequest request) throws Exception {
+    return LogEventDecoder.decode(ByteBuffer.wrap(request.toByteArray()));
+  }
+}
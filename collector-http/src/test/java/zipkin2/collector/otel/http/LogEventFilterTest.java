@@ -0,0 +1,70 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import zipkin2.collector.CollectorSampler;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.LogEventDropped;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LogEventFilterTest {
+  @Test
+  void create_noOptionsAllowsAll() {
+    assertThat(LogEventFilter.create(0, null, null, Collections.emptyMap()))
+        .isSameAs(LogEventFilter.ALLOW_ALL);
+    assertThat(LogEventFilter.ALLOW_ALL.isBelowMinSeverity(1)).isFalse();
+    assertThat(LogEventFilter.ALLOW_ALL.dropReason("demo.event", 1L)).isNull();
+  }
+
+  @Test
+  void isBelowMinSeverity() {
+    LogEventFilter filter = LogEventFilter.create(13, null, null, Collections.emptyMap());
+
+    assertThat(filter.isBelowMinSeverity(5)).isTrue(); // DEBUG
+    assertThat(filter.isBelowMinSeverity(13)).isFalse(); // WARN
+    assertThat(filter.isBelowMinSeverity(0)).isFalse(); // unspecified
+  }
+
+  @Test
+  void dropReason_names() {
+    LogEventFilter filter = LogEventFilter.create(0, asList("app.*"), asList("app.debug.*"),
+        Collections.emptyMap());
+
+    assertThat(filter.dropReason("app.checkout", 1L)).isNull();
+    assertThat(filter.dropReason("app.debug.cache", 1L)).isEqualTo(LogEventDropped.DENIED);
+    assertThat(filter.dropReason("browser.click", 1L)).isEqualTo(LogEventDropped.NOT_ALLOWED);
+  }
+
+  @Test
+  void dropReason_sampledLikeCollectorSampler() {
+    LogEventFilter filter = LogEventFilter.create(0, null, null,
+        Collections.singletonMap("cache.miss", 0.5f));
+    CollectorSampler sampler = CollectorSampler.create(0.5f);
+
+    for (long traceIdLow : new long[] {0L, 1L, -1L, Long.MAX_VALUE, Long.MIN_VALUE,
+        Long.MAX_VALUE / 3, -Long.MAX_VALUE / 3 * 2}) {
+      boolean sampled = sampler.isSampled(String.format("%016x", traceIdLow), false);
+      assertThat(filter.dropReason("cache.miss", traceIdLow))
+          .isEqualTo(sampled ? null : LogEventDropped.SAMPLED);
+    }
+    // Other names aren't sampled.
+    assertThat(filter.dropReason("cache.hit", Long.MAX_VALUE)).isNull();
+  }
+
+  @Test
+  void create_invalidSampleRate() {
+    assertThatThrownBy(() -> LogEventFilter.create(0, null, null,
+        Collections.singletonMap("cache.miss", 1.5f)))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("sample rate for cache.miss should be between 0 and 1");
+    assertThatThrownBy(() -> LogEventFilter.create(0, null, null,
+        Collections.singletonMap("cache.miss", Float.NaN)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
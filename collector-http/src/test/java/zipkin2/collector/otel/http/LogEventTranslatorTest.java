@@ -5,15 +5,25 @@
 package zipkin2.collector.otel.http;
 
 import com.google.protobuf.ByteString;
+import io.opentelemetry.proto.collector.logs.v1.ExportLogsServiceRequest;
 import io.opentelemetry.proto.common.v1.AnyValue;
 import io.opentelemetry.proto.common.v1.KeyValue;
 import io.opentelemetry.proto.common.v1.KeyValueList;
 import io.opentelemetry.proto.logs.v1.LogRecord;
+import io.opentelemetry.proto.logs.v1.ResourceLogs;
+import io.opentelemetry.proto.logs.v1.ScopeLogs;
 import io.opentelemetry.proto.logs.v1.SeverityNumber;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import org.junit.jupiter.api.Test;
+import zipkin2.Annotation;
 import zipkin2.Span;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.LogEventDropped;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.TruncatedValue;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static zipkin2.collector.otel.http.ZipkinTestUtil.stringAttribute;
 
 class LogEventTranslatorTest {
@@ -44,6 +54,17 @@ class LogEventTranslatorTest {
     assertThat(span).isNull();
   }
 
+  @Test
+  void shortTraceIdShouldBeRejected() {
+    assertThatThrownBy(() -> logEventTranslator.generateSpan(LogRecord.newBuilder()
+        .setSpanId(ByteString.fromHex("7180c278b62e8f6a"))
+        .setTraceId(ByteString.fromHex("6b221d5bc9e6496c"))
+        .addAttributes(stringAttribute("event.name", "demo.event"))
+        .build()))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("traceId should be 16 bytes, but was 8");
+  }
+
   @Test
   void severityNumberShouldBeTranslated() {
     Span span = logEventTranslator.generateSpan(LogRecord.newBuilder()
@@ -120,4 +141,103 @@ class LogEventTranslatorTest {
             "\"demo.event\":{\"body\":{\"string\":\"value1\",\"int\":2}}")
         .build());
   }
-}
\ No newline at end of file
+
+  @Test
+  void bodyShouldBeTruncated() {
+    List<TruncatedValue> truncated = new ArrayList<>();
+    LogEventTranslator logEventTranslator = LogEventTranslator.newBuilder()
+        .valueLimits(ValueLimits.create(0, Collections.emptyMap(), 30))
+        .metrics(new OtelCollectorMetrics() {
+          @Override public void incrementValuesTruncated(TruncatedValue type) {
+            truncated.add(type);
+          }
+        })
+        .build();
+    Span span = logEventTranslator.generateSpan(LogRecord.newBuilder()
+        .setSpanId(ByteString.fromHex("7180c278b62e8f6a216a2aea45d08fc9"))
+        .setTraceId(ByteString.fromHex("6b221d5bc9e6496c6b221d5bc9e6496c"))
+        .setTimeUnixNano(1505855794000000L)
+        .setBody(AnyValue.newBuilder().setStringValue("Hello World!".repeat(1000)).build())
+        .addAttributes(stringAttribute("event.name", "demo.event"))
+        .build());
+
+    assertThat(span.annotations().get(0).value())
+        .isEqualTo("\"demo.event\":{\"body\":\"Hello Wo...");
+    assertThat(truncated).containsExactly(TruncatedValue.LOG_ANNOTATION);
+  }
+
+  @Test
+  void filteredEventsShouldBeDroppedAndCounted() {
+    List<LogEventDropped> dropped = new ArrayList<>();
+    LogEventTranslator logEventTranslator = LogEventTranslator.newBuilder()
+        .filter(LogEventFilter.create(9, null, Collections.singletonList("demo.debug"),
+            Collections.emptyMap()))
+        .metrics(new OtelCollectorMetrics() {
+          @Override public void incrementLogEventsDropped(LogEventDropped reason) {
+            dropped.add(reason);
+          }
+        })
+        .build();
+    LogRecord.Builder event = LogRecord.newBuilder()
+        .setSpanId(ByteString.fromHex("7180c278b62e8f6a"))
+        .setTraceId(ByteString.fromHex("6b221d5bc9e6496c6b221d5bc9e6496c"))
+        .setSeverityNumber(SeverityNumber.SEVERITY_NUMBER_INFO)
+        .addAttributes(stringAttribute("event.name", "demo.event"));
+
+    assertThat(logEventTranslator.generateSpan(event.build())).isNotNull();
+    assertThat(logEventTranslator.generateSpan(event.clone()
+        .setSeverityNumber(SeverityNumber.SEVERITY_NUMBER_DEBUG)
+        .build())).isNull();
+    assertThat(logEventTranslator.generateSpan(event.clone()
+        .setAttributes(0, stringAttribute("event.name", "demo.debug"))
+        .build())).isNull();
+    assertThat(dropped).containsExactly(LogEventDropped.SEVERITY, LogEventDropped.DENIED);
+  }
+
+  @Test
+  void lowSeverityPlainLogsArentCountedAsDroppedEvents() {
+    List<LogEventDropped> dropped = new ArrayList<>();
+    LogEventTranslator logEventTranslator = LogEventTranslator.newBuilder()
+        .filter(LogEventFilter.create(9, null, null, Collections.emptyMap()))
+        .metrics(new OtelCollectorMetrics() {
+          @Override public void incrementLogEventsDropped(LogEventDropped reason) {
+            dropped.add(reason);
+          }
+        })
+        .build();
+    LogRecord log = LogRecord.newBuilder()
+        .setSpanId(ByteString.fromHex("7180c278b62e8f6a"))
+        .setTraceId(ByteString.fromHex("6b221d5bc9e6496c6b221d5bc9e6496c"))
+        .setSeverityNumber(SeverityNumber.SEVERITY_NUMBER_DEBUG)
+        .setBody(AnyValue.newBuilder().setStringValue("cache miss for user 1234").build())
+        .build();
+
+    assertThat(logEventTranslator.generateSpan(log)).isNull();
+    assertThat(dropped).isEmpty();
+  }
+
+  @Test
+  void eventsForTheSameSpanShouldBeCoalesced() {
+    LogRecord.Builder event = LogRecord.newBuilder()
+        .setSpanId(ByteString.fromHex("7180c278b62e8f6a"))
+        .setTraceId(ByteString.fromHex("6b221d5bc9e6496c6b221d5bc9e6496c"))
+        .setBody(AnyValue.newBuilder().setStringValue("Hello World!").build())
+        .addAttributes(stringAttribute("event.name", "demo.event"));
+    ExportLogsServiceRequest request = ExportLogsServiceRequest.newBuilder()
+        .addResourceLogs(ResourceLogs.newBuilder().addScopeLogs(ScopeLogs.newBuilder()
+            .addLogRecords(event.clone().setTimeUnixNano(1505855794000000L))
+            .addLogRecords(event.clone()
+                .setSpanId(ByteString.fromHex("216a2aea45d08fc9"))
+                .setTimeUnixNano(1505855795000000L))
+            .addLogRecords(event.clone().setTimeUnixNano(1505855796000000L))))
+        .build();
+
+    List<Span> spans = logEventTranslator.translate(request);
+
+    assertThat(spans).extracting(Span::id).containsExactly("7180c278b62e8f6a", "216a2aea45d08fc9");
+    assertThat(spans.get(0).annotations()).extracting(Annotation::timestamp)
+        .containsExactly(1505855794000L, 1505855796000L);
+    assertThat(spans.get(1).annotations()).extracting(Annotation::timestamp)
+        .containsExactly(1505855795000L);
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import zipkin2.Annotation;
+import zipkin2.Endpoint;
+import zipkin2.Span;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogJoinBufferTest {
+  static final String TRACE_ID = "6b221d5bc9e6496c6b221d5bc9e6496c";
+
+  List<Span> unjoined = new ArrayList<>();
+  AtomicInteger joined = new AtomicInteger(), expired = new AtomicInteger(),
+      rejected = new AtomicInteger();
+  OtelCollectorMetrics metrics = new OtelCollectorMetrics() {
+    @Override public void incrementLogSpansJoined() {
+      joined.incrementAndGet();
+    }
+
+    @Override public void incrementLogSpansExpired(int quantity) {
+      expired.addAndGet(quantity);
+    }
+
+    @Override public void incrementLogSpansRejected() {
+      rejected.incrementAndGet();
+    }
+  };
+  // Not swept on a thread, so tests decide when entries expire.
+  LogJoinBuffer buffer = new LogJoinBuffer(1000, 2, unjoined::addAll, metrics);
+
+  @Test
+  void create_zeroIsDisabled() {
+    assertThat(LogJoinBuffer.create(0, 10, unjoined::addAll, metrics))
+        .isSameAs(LogJoinBuffer.DISABLED);
+    assertThat(LogJoinBuffer.create(1000, 0, unjoined::addAll, metrics))
+        .isSameAs(LogJoinBuffer.DISABLED);
+
+    List<Span> logSpans = singletonList(logSpan("7180c278b62e8f6a", 1L, "a"));
+    assertThat(LogJoinBuffer.DISABLED.offer(logSpans)).isSameAs(logSpans);
+  }
+
+  @Test
+  void create_doesntStartSweeping() {
+    LogJoinBuffer buffer = LogJoinBuffer.create(1000, 10, unjoined::addAll, metrics);
+    try {
+      assertThat(buffer.sweeper).isNull();
+
+      buffer.start();
+      ScheduledExecutorService sweeper = buffer.sweeper;
+      buffer.start();
+      assertThat(buffer.sweeper).isNotNull().isSameAs(sweeper);
+    } finally {
+      buffer.close();
+    }
+    assertThat(buffer.sweeper.isTerminated()).isTrue();
+  }
+
+  @Test
+  void start_afterCloseDoesNothing() {
+    LogJoinBuffer buffer = LogJoinBuffer.create(1000, 10, unjoined::addAll, metrics);
+    buffer.close();
+    buffer.start();
+
+    assertThat(buffer.sweeper).isNull();
+  }
+
+  @Test
+  void join_mergesBufferedAnnotations() {
+    assertThat(buffer.offer(asList(
+        logSpan("7180c278b62e8f6a", 1L, "a"),
+        logSpan("7180c278b62e8f6a", 2L, "b")))).isEmpty();
+    assertThat(buffer.spans()).isEqualTo(1);
+    assertThat(buffer.annotations()).isEqualTo(2);
+
+    Span span = Span.newBuilder().traceId(TRACE_ID).id("7180c278b62e8f6a")
+        .name("get /").kind(Span.Kind.SERVER).timestamp(1L).duration(5L)
+        .localEndpoint(Endpoint.newBuilder().serviceName("frontend").build())
+        .build();
+
+    assertThat(buffer.join(span)).isEqualTo(span.toBuilder()
+        .addAnnotation(1L, "a")
+        .addAnnotation(2L, "b")
+        .build());
+    assertThat(joined).hasValue(1);
+    assertThat(buffer.spans()).isZero();
+    assertThat(buffer.annotations()).isZero();
+    // Joined, so nothing is left to write separately.
+    buffer.close();
+    assertThat(unjoined).isEmpty();
+  }
+
+  @Test
+  void join_noBufferedLogs() {
+    Span span = Span.newBuilder().traceId(TRACE_ID).id("7180c278b62e8f6a").name("get /").build();
+    List<Span> spans = singletonList(span);
+
+    assertThat(buffer.join(spans)).isSameAs(spans);
+    assertThat(buffer.join(span)).isSameAs(span);
+  }
+
+  @Test
+  void sweep_writesExpired() {
+    buffer.offer(singletonList(logSpan("7180c278b62e8f6a", 1L, "a")));
+    long expiresAt = buffer.entries.values().iterator().next().expiresAt;
+
+    buffer.sweep(expiresAt - 1);
+    assertThat(unjoined).isEmpty();
+
+    buffer.sweep(expiresAt);
+    assertThat(unjoined).extracting(Span::annotations)
+        .containsExactly(singletonList(Annotation.create(1L, "a")));
+    assertThat(expired).hasValue(1);
+    assertThat(buffer.spans()).isZero();
+    assertThat(buffer.annotations()).isZero();
+  }
+
+  @Test
+  void offer_rejectsWhenFull() {
+    List<Span> rejectedSpans = buffer.offer(asList(
+        logSpan("7180c278b62e8f6a", 1L, "a"),
+        logSpan("216a2aea45d08fc9", 1L, "b"),
+        logSpan("7180c278b62e8f6a", 2L, "c"), // existing entries can still be merged
+        logSpan("1b4a8bd6ef6b3ab1", 1L, "d")));
+
+    assertThat(rejectedSpans).extracting(Span::id).containsExactly("1b4a8bd6ef6b3ab1");
+    assertThat(rejected).hasValue(1);
+    assertThat(buffer.spans()).isEqualTo(2);
+    assertThat(buffer.annotations()).isEqualTo(3);
+  }
+
+  @Test
+  void close_writesBuffered() {
+    buffer.offer(asList(
+        logSpan("7180c278b62e8f6a", 1L, "a"),
+        logSpan("216a2aea45d08fc9", 1L, "b")));
+
+    buffer.close();
+
+    assertThat(unjoined).extracting(Span::id)
+        .containsExactlyInAnyOrder("7180c278b62e8f6a", "216a2aea45d08fc9");
+    assertThat(expired).hasValue(2);
+  }
+
+  @Test
+  void offer_afterCloseIsntBuffered() {
+    buffer.close();
+
+    List<Span> logSpans = singletonList(logSpan("7180c278b62e8f6a", 1L, "a"));
+    assertThat(buffer.offer(logSpans)).isSameAs(logSpans);
+    assertThat(buffer.spans()).isZero();
+    assertThat(unjoined).isEmpty();
+  }
+
+  static Span logSpan(String spanId, long timestamp, String annotation) {
+    return Span.newBuilder().traceId(TRACE_ID).id(spanId)
+        .addAnnotation(timestamp, annotation)
+        .build();
+  }
+}
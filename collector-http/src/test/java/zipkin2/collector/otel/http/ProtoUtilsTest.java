@@ -72,7 +72,7 @@ class ProtoUtilsTest {
         .isEqualTo("{\"x\":\"abc\",\"y\":\"efg\",\"z\":0}");
     assertThat(
         valueToJson(AnyValue.newBuilder().setBytesValue(ByteString.fromHex("cafebabe")).build()))
-        .isEqualTo("\"\\312\\376\\272\\276\"");
+        .isEqualTo("\"yv66vg==\"");
     assertThat(valueToJson(AnyValue.newBuilder().build())).isEqualTo("\"\"");
   }
 
@@ -118,4 +118,74 @@ class ProtoUtilsTest {
         .isEqualTo(
             "{\"string\":\"s\",\"int\":100,\"boolean\":true,\"double\":1.2,\"array\":[\"abc\",20,false],\"kvlist\":{\"x\":\"abc\",\"y\":\"efg\",\"z\":0}}");
   }
+
+  @Test
+  void valueToString_truncatesString() {
+    AnyValue value = AnyValue.newBuilder().setStringValue("0123456789".repeat(100_000)).build();
+
+    assertThat(ProtoUtils.valueToString(value, 10)).isEqualTo("0123456789...");
+    assertThat(ProtoUtils.valueToString(value, 1_000_000)).isEqualTo(value.getStringValue());
+  }
+
+  @Test
+  void valueToString_truncatesWithoutSplittingCharacters() {
+    // Each snowman is 3 UTF-8 bytes, and each grinning face a surrogate pair.
+    AnyValue snowmen = AnyValue.newBuilder().setStringValue("\u2603".repeat(100)).build();
+    AnyValue faces = AnyValue.newBuilder().setStringValue("\ud83d\ude00".repeat(100)).build();
+
+    assertThat(ProtoUtils.valueToString(snowmen, 10)).isEqualTo("\u2603".repeat(10) + "...");
+    assertThat(ProtoUtils.valueToString(faces, 5)).isEqualTo("\ud83d\ude00".repeat(2) + "...");
+  }
+
+  @Test
+  void valueToString_notTruncatedAtMaxLength() {
+    AnyValue value = AnyValue.newBuilder().setStringValue("\u2603".repeat(10)).build();
+
+    assertThat(ProtoUtils.valueToString(value, 10)).isEqualTo(value.getStringValue());
+  }
+
+  @Test
+  void valueToString_nonFiniteDoubles() {
+    AnyValue nan = AnyValue.newBuilder().setDoubleValue(Double.NaN).build();
+    AnyValue infinity = AnyValue.newBuilder().setDoubleValue(Double.POSITIVE_INFINITY).build();
+    AnyValue array = AnyValue.newBuilder().setArrayValue(ArrayValue.newBuilder()
+        .addValues(nan).addValues(infinity).addValues(AnyValue.newBuilder().setDoubleValue(1.5)))
+        .build();
+
+    assertThat(ProtoUtils.valueToString(nan, 1000)).isEqualTo("NaN");
+    assertThat(ProtoUtils.valueToString(infinity, 1000)).isEqualTo("Infinity");
+    assertThat(ProtoUtils.valueToString(array, 1000)).isEqualTo("NaN,Infinity,1.5");
+  }
+
+  @Test
+  void valueToString_truncatesArray() {
+    AnyValue value = AnyValue.newBuilder().setArrayValue(ArrayValue.newBuilder()
+        .addValues(AnyValue.newBuilder().setStringValue("abc"))
+        .addValues(AnyValue.newBuilder().setStringValue("defgh"))
+        .addValues(AnyValue.newBuilder().setStringValue("ijk"))).build();
+
+    assertThat(ProtoUtils.valueToString(value, 6)).isEqualTo("abc,de...");
+    assertThat(ProtoUtils.valueToString(value, 13)).isEqualTo("abc,defgh,ijk");
+  }
+
+  @Test
+  void valueToJson_truncates() {
+    AnyValue value = AnyValue.newBuilder().setKvlistValue(KeyValueList.newBuilder()
+        .addValues(KeyValue.newBuilder().setKey("a")
+            .setValue(AnyValue.newBuilder().setStringValue("x".repeat(1000))))
+        .addValues(KeyValue.newBuilder().setKey("b")
+            .setValue(AnyValue.newBuilder().setIntValue(1)))).build();
+
+    assertThat(ProtoUtils.valueToJson(value, 10)).isEqualTo("{\"a\":\"xxxx...");
+  }
+
+  @Test
+  void valueToJson_truncatesBytesInKvList() {
+    AnyValue value = AnyValue.newBuilder().setKvlistValue(KeyValueList.newBuilder()
+        .addValues(KeyValue.newBuilder().setKey("a")
+            .setValue(AnyValue.newBuilder().setBytesValue(ByteString.copyFrom(new byte[30_000])))))
+        .build();
+
+    assertThat(ProtoUtils.valueToJson(value, 10)).isEqualTo("{\"a\":\"AAAA...");
+  }
 }
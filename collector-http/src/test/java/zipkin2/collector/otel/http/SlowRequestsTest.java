@@ -0,0 +1,158 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import com.linecorp.armeria.common.MediaType;
+import io.opentelemetry.proto.collector.logs.v1.ExportLogsServiceRequest;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.proto.common.v1.AnyValue;
+import io.opentelemetry.proto.common.v1.ArrayValue;
+import io.opentelemetry.proto.common.v1.KeyValue;
+import io.opentelemetry.proto.common.v1.KeyValueList;
+import io.opentelemetry.proto.logs.v1.LogRecord;
+import io.opentelemetry.proto.logs.v1.ResourceLogs;
+import io.opentelemetry.proto.logs.v1.ScopeLogs;
+import io.opentelemetry.proto.resource.v1.Resource;
+import io.opentelemetry.proto.trace.v1.ResourceSpans;
+import io.opentelemetry.proto.trace.v1.ScopeSpans;
+import io.opentelemetry.proto.trace.v1.Span;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Encoding;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Signal;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.Stage;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static zipkin2.collector.otel.http.ZipkinTestUtil.stringAttribute;
+
+class SlowRequestsTest {
+  SlowRequests slowRequests = SlowRequests.create(1, 1f);
+
+  @Test
+  void create_zeroIsNoop() {
+    assertThat(SlowRequests.create(0, 1f)).isSameAs(SlowRequests.NOOP);
+    assertThat(SlowRequests.create(100, 0f)).isSameAs(SlowRequests.NOOP);
+    assertThat(SlowRequests.NOOP.sample()).isFalse();
+  }
+
+  @Test
+  void create_invalid() {
+    assertThatThrownBy(() -> SlowRequests.create(-1, 1f))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> SlowRequests.create(100, 1.5f))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> SlowRequests.create(100, Float.NaN))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void list_mostRecentFirst_bounded() {
+    for (int i = 0; i < SlowRequests.CAPACITY + 5; i++) slowRequests.add(slowRequest(i));
+
+    List<SlowRequest> list = slowRequests.list();
+    assertThat(list).hasSize(SlowRequests.CAPACITY);
+    assertThat(list.get(0).timestamp()).isEqualTo(SlowRequests.CAPACITY + 4);
+    assertThat(list.get(list.size() - 1).timestamp()).isEqualTo(5);
+  }
+
+  @Test
+  void endRequest_capturesSlowRequest() throws Exception {
+    StageRecorder stages = new StageRecorder(OtelCollectorMetrics.NOOP_METRICS, slowRequests,
+        Signal.TRACES, MediaType.PROTOBUF);
+    stages.endStage(Stage.AGGREGATE);
+    stages.bytes(100);
+    stages.requestSizes(traces());
+    Thread.sleep(2);
+    stages.endStage(Stage.DECODE);
+    stages.endRequest(new IllegalArgumentException());
+
+    assertThat(slowRequests.list()).singleElement().satisfies(r -> {
+      assertThat(r.signal()).isEqualTo(Signal.TRACES);
+      assertThat(r.encoding()).isEqualTo(Encoding.PROTOBUF);
+      assertThat(r.outcome()).isEqualTo("IllegalArgumentException");
+      assertThat(r.durationNanos()).isGreaterThanOrEqualTo(1_000_000L);
+      assertThat(r.stageNanos()).containsKey(Stage.DECODE).doesNotContainKey(Stage.STORE);
+      assertThat(r.bytes()).isEqualTo(100L);
+      assertThat(r.compressedBytes()).isEqualTo(-1L);
+      assertThat(r.items()).isEqualTo(2);
+      assertThat(r.serviceNames()).containsExactly("frontend");
+    });
+  }
+
+  @Test
+  void endRequest_fastRequestNotCaptured() {
+    slowRequests = SlowRequests.create(60_000, 1f);
+    StageRecorder stages = new StageRecorder(OtelCollectorMetrics.NOOP_METRICS, slowRequests,
+        Signal.TRACES, MediaType.PROTOBUF);
+    stages.endRequest(null);
+
+    assertThat(slowRequests.list()).isEmpty();
+  }
+
+  @Test
+  void payload_traces() {
+    SlowRequests.Payload payload = SlowRequests.Payload.of(traces());
+
+    assertThat(payload.resources).isEqualTo(2);
+    assertThat(payload.items).isEqualTo(2);
+    assertThat(payload.serviceNames).containsExactly("frontend", IngestVolumes.UNKNOWN_SERVICE);
+    assertThat(payload.largestAttributeKey).isEqualTo("db.statement");
+    assertThat(payload.maxValueDepth).isEqualTo(2);
+  }
+
+  @Test
+  void payload_logs() {
+    ExportLogsServiceRequest logs = ExportLogsServiceRequest.newBuilder()
+        .addResourceLogs(ResourceLogs.newBuilder()
+            .addScopeLogs(ScopeLogs.newBuilder()
+                .addLogRecords(LogRecord.newBuilder()
+                    .addAttributes(stringAttribute("event.name", "cache.miss"))
+                    .setBody(AnyValue.newBuilder().setStringValue("x".repeat(100))))))
+        .build();
+    SlowRequests.Payload payload = SlowRequests.Payload.of(logs);
+
+    assertThat(payload.resources).isEqualTo(1);
+    assertThat(payload.items).isEqualTo(1);
+    assertThat(payload.largestAttributeKey).isEqualTo("body");
+    assertThat(payload.maxValueDepth).isZero();
+  }
+
+  @Test
+  void payload_notDecoded() {
+    SlowRequests.Payload payload = SlowRequests.Payload.of(null);
+
+    assertThat(payload.items).isZero();
+    assertThat(payload.serviceNames).isEmpty();
+    assertThat(payload.largestAttributeKey).isNull();
+  }
+
+  static ExportTraceServiceRequest traces() {
+    AnyValue nested = AnyValue.newBuilder().setKvlistValue(KeyValueList.newBuilder()
+        .addValues(KeyValue.newBuilder().setKey("ids").setValue(AnyValue.newBuilder()
+            .setArrayValue(ArrayValue.newBuilder()
+                .addValues(AnyValue.newBuilder().setIntValue(1)))))).build();
+    return ExportTraceServiceRequest.newBuilder()
+        .addResourceSpans(ResourceSpans.newBuilder()
+            .setResource(Resource.newBuilder().addAttributes(stringAttribute("service.name",
+                "frontend")))
+            .addScopeSpans(ScopeSpans.newBuilder()
+                .addSpans(Span.newBuilder().setName("get")
+                    .addAttributes(stringAttribute("db.statement", "select * from t".repeat(10)))
+                    .addEvents(Span.Event.newBuilder()
+                        .addAttributes(KeyValue.newBuilder().setKey("nested").setValue(nested))))))
+        .addResourceSpans(ResourceSpans.newBuilder()
+            .addScopeSpans(ScopeSpans.newBuilder()
+                .addSpans(Span.newBuilder().setName("post"))))
+        .build();
+  }
+
+  static SlowRequest slowRequest(long timestamp) {
+    return new SlowRequest(timestamp, 1L, Signal.TRACES, Encoding.JSON, "accepted", emptyMap(),
+        0L, -1L, 0, 0, emptyList(), null, 0, 0);
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpanNameGuardTest {
+  @Test
+  void create_zeroIsNoop() {
+    assertThat(SpanNameGuard.create(0, Collections.emptyList(), "other"))
+        .isSameAs(SpanNameGuard.NOOP);
+    assertThat(SpanNameGuard.NOOP.collapse("frontend", "get /users/1")).isNull();
+  }
+
+  @Test
+  void collapse_afterMaxNames() {
+    SpanNameGuard guard = SpanNameGuard.create(2, Collections.emptyList(), "other");
+
+    assertThat(guard.collapse("frontend", "get /")).isNull();
+    assertThat(guard.collapse("frontend", "get /users/1")).isNull();
+    assertThat(guard.collapse("frontend", "get /users/2")).isEqualTo("other");
+    // Names seen before the limit are still allowed.
+    assertThat(guard.collapse("frontend", "get /users/1")).isNull();
+  }
+
+  @Test
+  void collapse_perService() {
+    SpanNameGuard guard = SpanNameGuard.create(1, Collections.emptyList(), "other");
+
+    assertThat(guard.collapse("frontend", "get /")).isNull();
+    assertThat(guard.collapse("backend", "get /api")).isNull();
+    assertThat(guard.collapse(null, "get /")).isNull();
+    assertThat(guard.collapse("frontend", "get /api")).isEqualTo("other");
+  }
+
+  @Test
+  void collapse_templates() {
+    SpanNameGuard guard =
+        SpanNameGuard.create(1, asList("[0-9]+", "[0-9a-f]{8}-[0-9a-f-]{27}"), "other");
+    guard.collapse("frontend", "get /");
+
+    assertThat(guard.collapse("frontend", "get /users/1234/orders/5"))
+        .isEqualTo("get /users/{}/orders/{}");
+    assertThat(guard.collapse("frontend", "get /health")).isEqualTo("other");
+  }
+
+  @Test
+  void collapse_servicesBounded() {
+    SpanNameGuard guard = SpanNameGuard.create(1, Collections.emptyList(), "other");
+    for (int i = 0; i < SpanNameGuard.MAX_SERVICES + 10; i++) {
+      guard.collapse("service" + i, "get /");
+    }
+
+    assertThat(guard.services).hasSize(SpanNameGuard.MAX_SERVICES);
+    // Services beyond the limit share names.
+    assertThat(guard.collapse("another", "get /api")).isEqualTo("other");
+  }
+
+  @Test
+  void nameHashes_growsAsNamesAreAdded() {
+    SpanNameGuard.NameHashes names =
+        new SpanNameGuard.NameHashes(SpanNameGuard.MAX_NAMES_PER_SERVICE);
+    assertThat(names.table.length()).isEqualTo(SpanNameGuard.NameHashes.INITIAL_CAPACITY);
+
+    for (long hash = 1; hash <= 1000; hash++) assertThat(names.add(hash * 31)).isTrue();
+
+    assertThat(names.table.length()).isEqualTo(2048);
+    assertThat(names.size).isEqualTo(1000);
+    for (long hash = 1; hash <= 1000; hash++) assertThat(names.add(hash * 31)).isTrue();
+    assertThat(names.size).isEqualTo(1000);
+  }
+
+  @Test
+  void nameHashes_bounded() {
+    SpanNameGuard.NameHashes names = new SpanNameGuard.NameHashes(20);
+    for (long hash = 1; hash <= 20; hash++) assertThat(names.add(hash)).isTrue();
+
+    assertThat(names.add(21)).isFalse();
+    assertThat(names.table.length()).isEqualTo(names.maxCapacity).isEqualTo(64);
+  }
+
+  @Test
+  void nameHashes_concurrentAdds() throws Exception {
+    SpanNameGuard.NameHashes names = new SpanNameGuard.NameHashes(5000);
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<?>> adds = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        adds.add(executor.submit(() -> {
+          start.await();
+          // Threads add overlapping hashes while the table grows, then pass maxSize.
+          for (long hash = 1; hash <= 10_000; hash++) names.add(hash * 31);
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> add : adds) add.get(10, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(names.size).isEqualTo(5000);
+    int present = 0;
+    for (long hash = 1; hash <= 10_000; hash++) {
+      if (names.add(hash * 31)) present++;
+    }
+    assertThat(present).isEqualTo(5000);
+  }
+
+  @Test
+  void hash64_distinguishesSimilarNames() {
+    assertThat(Hashing.hash64("get /users/1")).isNotEqualTo(Hashing.hash64("get /users/2"));
+    assertThat(Hashing.hash64("get /users/1")).isEqualTo(Hashing.hash64("get /users/1"));
+  }
+}
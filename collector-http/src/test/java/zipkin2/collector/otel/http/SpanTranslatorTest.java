@@ -5,21 +5,31 @@
 package zipkin2.collector.otel.http;
 
 import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
 import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
 import io.opentelemetry.proto.common.v1.AnyValue;
 import io.opentelemetry.proto.common.v1.ArrayValue;
 import io.opentelemetry.proto.resource.v1.Resource;
+import io.opentelemetry.proto.trace.v1.Span.Event;
 import io.opentelemetry.proto.trace.v1.Span.SpanKind;
 import io.opentelemetry.proto.trace.v1.Status;
 import io.opentelemetry.semconv.NetworkAttributes;
 import io.opentelemetry.semconv.OtelAttributes;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
+import zipkin2.Annotation;
 import zipkin2.Endpoint;
 import zipkin2.Span;
+import zipkin2.collector.otel.http.OtelCollectorMetrics.TruncatedValue;
 
+import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static zipkin2.collector.otel.http.ZipkinTestUtil.attribute;
@@ -105,6 +115,47 @@ class SpanTranslatorTest {
         .isInstanceOf(IllegalArgumentException.class);
   }
 
+  @Test
+  void translate_shortTraceId() {
+    ExportTraceServiceRequest data = requestBuilderWithSpanCustomizer(span -> span
+        .setTraceId(ByteString.fromHex("6b562147388b35bf")))
+        .build();
+    assertThatThrownBy(() -> spanTranslator.translate(data))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("traceId should be 16 bytes, but was 8");
+  }
+
+  @Test
+  void translate_shortSpanId() {
+    ExportTraceServiceRequest data = requestBuilderWithSpanCustomizer(span -> span
+        .setSpanId(ByteString.fromHex("9cc1e304")))
+        .build();
+    assertThatThrownBy(() -> spanTranslator.translate(data))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("spanId should be 8 bytes, but was 4");
+  }
+
+  @Test
+  void translate_shortParentSpanId() {
+    ExportTraceServiceRequest data = requestBuilderWithSpanCustomizer(span -> span
+        .setParentSpanId(ByteString.fromHex("8b03ab42")))
+        .build();
+    assertThatThrownBy(() -> spanTranslator.translate(data))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("parentSpanId should be 8 bytes, but was 4");
+  }
+
+  @Test
+  void bytesToLong_readsInPlace() {
+    ByteString id = ByteString.fromHex(ZipkinTestUtil.TRACE_ID);
+    ByteString wrapped = UnsafeByteOperations.unsafeWrap(ByteBuffer.wrap(id.toByteArray()));
+
+    assertThat(SpanTranslator.bytesToLong(id, 0)).isEqualTo(0xd239036e7d5cec11L);
+    assertThat(SpanTranslator.bytesToLong(id, 8)).isEqualTo(0x6b562147388b35bfL);
+    assertThat(SpanTranslator.bytesToLong(wrapped, 0)).isEqualTo(0xd239036e7d5cec11L);
+    assertThat(SpanTranslator.bytesToLong(wrapped, 8)).isEqualTo(0x6b562147388b35bfL);
+  }
+
   @Test
   void translate_subMicroDurations() {
     ExportTraceServiceRequest data =
@@ -546,4 +597,146 @@ class SpanTranslatorTest {
     assertThat(spanTranslator.translate(data))
         .containsExactly(expectedSpan);
   }
+
+  @Test
+  void translate_internStrings() throws Exception {
+    SpanTranslator spanTranslator = SpanTranslator.newBuilder().internStrings(true).build();
+    ExportTraceServiceRequest data = requestBuilderWithSpanCustomizer(span -> span
+        .addAttributes(stringAttribute("http.request.method", "GET")))
+        .build();
+
+    // Each parse decodes its own copies of strings. Interning admits them on the second sighting.
+    byte[] encoded = data.toByteArray();
+    spanTranslator.translate(ExportTraceServiceRequest.parseFrom(encoded));
+    Span first = spanTranslator.translate(ExportTraceServiceRequest.parseFrom(encoded)).get(0);
+    Span second = spanTranslator.translate(ExportTraceServiceRequest.parseFrom(encoded)).get(0);
+
+    assertThat(second).isEqualTo(first);
+    assertThat(second.name()).isSameAs(first.name());
+    assertThat(second.tags().get("http.request.method"))
+        .isSameAs(first.tags().get("http.request.method"));
+  }
+
+  @Test
+  void translate_attributeFilter() {
+    List<String> dropped = new ArrayList<>();
+    SpanTranslator spanTranslator = SpanTranslator.newBuilder()
+        .attributeFilter(AttributeFilter.create(asList("http.*", "thread.id"), asList("http.url")))
+        .metrics(new OtelCollectorMetrics() {
+          @Override public void incrementAttributesDropped(String rule) {
+            dropped.add(rule);
+          }
+        })
+        .build();
+    ExportTraceServiceRequest data = requestBuilderWithSpanCustomizer(span -> span
+        .addAttributes(stringAttribute("http.request.method", "GET"))
+        .addAttributes(stringAttribute("http.url", "/secret"))
+        .addAttributes(stringAttribute("code.function", "handle")))
+        .build();
+
+    Span span = spanTranslator.translate(data).get(0);
+
+    assertThat(span.tags())
+        .containsEntry("http.request.method", "GET")
+        .doesNotContainKeys("http.url", "code.function");
+    assertThat(dropped).containsExactlyInAnyOrder("http.url", AttributeFilter.NOT_ALLOWED);
+  }
+
+  @Test
+  void translate_valueLimits() {
+    List<TruncatedValue> truncated = new ArrayList<>();
+    SpanTranslator spanTranslator = SpanTranslator.newBuilder()
+        .valueLimits(ValueLimits.create(8, Map.of("db.statement", 4), 12))
+        .metrics(new OtelCollectorMetrics() {
+          @Override public void incrementValuesTruncated(TruncatedValue type) {
+            truncated.add(type);
+          }
+        })
+        .build();
+    ExportTraceServiceRequest data = requestBuilderWithSpanCustomizer(span -> span
+        .addAttributes(stringAttribute("db.statement", "SELECT * FROM users"))
+        .addAttributes(stringAttribute("http.route", "/users/{id}"))
+        .addAttributes(stringAttribute("http.request.method", "GET"))
+        .addEvents(Event.newBuilder().setName("exception")
+            .addAttributes(stringAttribute("exception.stacktrace", "at Foo.bar()"))))
+        .build();
+
+    Span span = spanTranslator.translate(data).get(0);
+
+    assertThat(span.tags())
+        .containsEntry("db.statement", "SELE...")
+        .containsEntry("http.route", "/users/{...")
+        .containsEntry("http.request.method", "GET");
+    assertThat(span.annotations()).extracting(Annotation::value)
+        .containsExactly("\"exception\":...");
+    assertThat(truncated)
+        .containsOnly(TruncatedValue.TAG, TruncatedValue.ANNOTATION)
+        .hasSize(3);
+  }
+
+  @Test
+  void translate_spanNameGuard() {
+    AtomicInteger collapsed = new AtomicInteger();
+    SpanTranslator spanTranslator = SpanTranslator.newBuilder()
+        .spanNameGuard(SpanNameGuard.create(1, List.of("[0-9]+"), "other"))
+        .metrics(new OtelCollectorMetrics() {
+          @Override public void incrementSpanNamesCollapsed() {
+            collapsed.incrementAndGet();
+          }
+        })
+        .build();
+    spanTranslator.translate(requestBuilderWithSpanCustomizer(span -> span
+        .setName("GET /")).build());
+
+    Span span = spanTranslator.translate(requestBuilderWithSpanCustomizer(span2 -> span2
+        .setName("GET /users/1234")).build()).get(0);
+
+    assertThat(span.name()).isEqualTo("get /users/{}");
+    assertThat(span.tags()).containsEntry(SpanNameGuard.ORIGINAL_SPAN_NAME, "get /users/1234");
+    assertThat(collapsed).hasValue(1);
+  }
+
+  @Test
+  void translate_reusedBuilderDoesNotLeakBetweenSpans() {
+    Span first = spanTranslator.translate(requestBuilderWithSpanCustomizer(span -> span
+        .addAttributes(stringAttribute("first", "1"))
+        .addEvents(Event.newBuilder().setName("first.event"))).build()).get(0);
+    Span second = spanTranslator.translate(requestBuilderWithSpanCustomizer(span -> span
+        .addAttributes(stringAttribute("second", "2"))).build()).get(0);
+
+    assertThat(first.tags()).containsKey("first").doesNotContainKey("second");
+    assertThat(first.annotations()).extracting(Annotation::value).containsExactly("first.event");
+    assertThat(second.tags()).containsKey("second").doesNotContainKey("first");
+    assertThat(second.annotations()).isEmpty();
+  }
+
+  @Test
+  void translate_elidePromotedAttributes() {
+    SpanTranslator spanTranslator = SpanTranslator.newBuilder()
+        .elidePromotedAttributes(true)
+        .build();
+    ExportTraceServiceRequest data = requestBuilderWithSpanCustomizer(span -> span
+        .setKind(SpanKind.SPAN_KIND_CLIENT)
+        .addAttributes(
+            stringAttribute(SemanticConventionsAttributes.PEER_SERVICE, "remote-test-service"))
+        .addAttributes(stringAttribute(NetworkAttributes.NETWORK_PEER_ADDRESS.getKey(), "8.8.8.8"))
+        .addAttributes(longAttribute(NetworkAttributes.NETWORK_PEER_PORT.getKey(), 42L))
+        .addAttributes(
+            stringAttribute(NetworkAttributes.NETWORK_LOCAL_ADDRESS.getKey(), "localhost")))
+        .build();
+
+    Span span = spanTranslator.translate(data).get(0);
+
+    assertThat(span.remoteEndpoint()).isEqualTo(Endpoint.newBuilder()
+        .serviceName("remote-test-service")
+        .ip("8.8.8.8")
+        .port(42)
+        .build());
+    // localhost isn't an IP literal, so it wasn't promoted.
+    assertThat(span.tags())
+        .containsEntry(NetworkAttributes.NETWORK_LOCAL_ADDRESS.getKey(), "localhost")
+        .doesNotContainKeys(SemanticConventionsAttributes.PEER_SERVICE,
+            NetworkAttributes.NETWORK_PEER_ADDRESS.getKey(),
+            NetworkAttributes.NETWORK_PEER_PORT.getKey());
+  }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StringInternerTest {
+  StringInterner interner = StringInterner.create();
+
+  @Test
+  void intern_admitsOnSecondSighting() {
+    String first = new String("http.request.method");
+    String second = new String("http.request.method");
+    String third = new String("http.request.method");
+
+    assertThat(interner.intern(first)).isSameAs(first);
+    assertThat(interner.intern(second)).isSameAs(second); // admitted
+    assertThat(interner.intern(third)).isSameAs(second);
+  }
+
+  @Test
+  void intern_bypassesLongValues() {
+    String longValue = "a".repeat(StringInterner.DEFAULT_MAX_LENGTH + 1);
+    interner.intern(longValue);
+    interner.intern(longValue);
+
+    String copy = new String(longValue);
+    assertThat(interner.intern(copy)).isSameAs(copy);
+  }
+
+  @Test
+  void intern_highCardinalityDoesntEvict() {
+    StringInterner interner = new StringInterner(1, 64);
+    interner.intern(new String("GET"));
+    String cached = new String("GET");
+    interner.intern(cached);
+
+    // values seen once each don't replace the cached entry
+    for (int i = 0; i < 100; i++) {
+      interner.intern("id-" + i);
+    }
+    assertThat(interner.intern(new String("GET"))).isSameAs(cached);
+  }
+
+  @Test
+  void intern_nullAndEmpty() {
+    assertThat(interner.intern(null)).isNull();
+    assertThat(interner.intern(new String(""))).isSameAs("");
+  }
+
+  @Test
+  void noop_returnsInput() {
+    String value = new String("GET");
+    StringInterner.NOOP.intern(value);
+    StringInterner.NOOP.intern(value);
+
+    String copy = new String("GET");
+    assertThat(StringInterner.NOOP.intern(copy)).isSameAs(copy);
+  }
+
+  @Test
+  void sizeRoundedUpToPowerOfTwo() {
+    assertThat(new StringInterner(1000, 64).table).hasSize(1024);
+    assertThat(new StringInterner(1024, 64).table).hasSize(1024);
+    assertThat(new StringInterner(1, 64).table).hasSize(1);
+  }
+}
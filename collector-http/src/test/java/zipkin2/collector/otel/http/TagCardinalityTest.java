@@ -0,0 +1,91 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin2.collector.otel.http;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TagCardinalityTest {
+  AtomicInteger demoted = new AtomicInteger();
+  Runnable onDemoted = demoted::incrementAndGet;
+
+  @Test
+  void create_zeroIsNoop() {
+    assertThat(TagCardinality.create(0, TagOverflowMode.DROP)).isSameAs(TagCardinality.NOOP);
+    assertThat(TagCardinality.NOOP.record("user.id", "1", onDemoted)).isEqualTo("1");
+    assertThat(TagCardinality.NOOP.sketches).isEmpty();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {10, 100, 1000, 10_000, 100_000})
+  void estimate_withinError(int count) {
+    TagCardinality.Sketch sketch = new TagCardinality.Sketch();
+    for (int i = 0; i < count; i++) {
+      sketch.add(Hashing.hash64("value-" + i));
+      sketch.add(Hashing.hash64("value-" + i)); // duplicates don't count
+    }
+
+    assertThat((double) sketch.estimate()).isCloseTo(count, within(count * 0.1));
+  }
+
+  @Test
+  void record_drop() {
+    TagCardinality tagCardinality = TagCardinality.create(100, TagOverflowMode.DROP);
+    for (int i = 0; i < 10; i++) {
+      assertThat(tagCardinality.record("http.method", "GET", onDemoted)).isEqualTo("GET");
+    }
+    for (int i = 0; i < 1000; i++) {
+      tagCardinality.record("user.id", String.valueOf(i), onDemoted);
+    }
+
+    assertThat(demoted).hasValue(1);
+    assertThat(tagCardinality.isDropped("user.id")).isTrue();
+    assertThat(tagCardinality.isDropped("http.method")).isFalse();
+    assertThat(tagCardinality.record("user.id", "1", onDemoted)).isNull();
+    assertThat(tagCardinality.demotedKeys()).containsExactly("user.id");
+    assertThat(tagCardinality.top(1)).containsOnlyKeys("user.id");
+    assertThat(tagCardinality.top(2)).containsEntry("http.method", 1L);
+  }
+
+  @Test
+  void record_hash() {
+    TagCardinality tagCardinality = TagCardinality.create(100, TagOverflowMode.HASH);
+    for (int i = 0; i < 1000; i++) {
+      tagCardinality.record("db.statement", "SELECT " + i, onDemoted);
+    }
+
+    assertThat(tagCardinality.isDropped("db.statement")).isFalse();
+    assertThat(tagCardinality.record("db.statement", "SELECT 1", onDemoted))
+        .isEqualTo(TagCardinality.toHex(Hashing.hash64("SELECT 1")))
+        .hasSize(16);
+  }
+
+  @Test
+  void record_keysBounded() {
+    TagCardinality tagCardinality = TagCardinality.create(100, TagOverflowMode.DROP);
+    for (int i = 0; i < TagCardinality.MAX_KEYS + 10; i++) {
+      tagCardinality.record("key" + i, "value", onDemoted);
+    }
+
+    assertThat(tagCardinality.sketches).hasSize(TagCardinality.MAX_KEYS);
+  }
+
+  @Test
+  void toHex() {
+    assertThat(TagCardinality.toHex(0xcafebabeL)).isEqualTo("00000000cafebabe");
+    assertThat(TagCardinality.toHex(-1L)).isEqualTo("ffffffffffffffff");
+  }
+
+  @Test
+  void top_empty() {
+    assertThat(TagCardinality.create(100, TagOverflowMode.DROP).top(10)).isEmpty();
+    assertThat(TagCardinality.NOOP.top(10)).isEmpty();
+  }
+}
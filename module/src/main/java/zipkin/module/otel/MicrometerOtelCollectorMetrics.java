@@ -0,0 +1,226 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin.module.otel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import zipkin2.collector.otel.http.OpenTelemetryHttpCollector;
+import zipkin2.collector.otel.http.OtelCollectorMetrics;
+
+/**
+ * Records {@link OtelCollectorMetrics} with Micrometer, using the same naming and transport tag
+ * as the collector metrics recorded by Zipkin server.
+ */
+final class MicrometerOtelCollectorMetrics implements OtelCollectorMetrics {
+  static final String TRANSPORT = "otel/http";
+
+  final MeterRegistry registry;
+  final ConcurrentHashMap<String, Counter> attributesDropped = new ConcurrentHashMap<>();
+  final Map<TruncatedValue, Counter> valuesTruncated = new EnumMap<>(TruncatedValue.class);
+  final Map<LogEventDropped, Counter> logEventsDropped = new EnumMap<>(LogEventDropped.class);
+  final Counter spanNamesCollapsed, tagKeysDemoted;
+  final Counter logSpansJoined, logSpansExpired, logSpansRejected;
+  final boolean percentileHistograms;
+  /**
+   * Indexed by the ordinals of signal, encoding and stage, so recording doesn't look them up.
+   * Timers are registered on first use, so combinations that never occur, such as protobuf with
+   * {@link Stage#FIX_JSON_IDS}, add no series.
+   */
+  final AtomicReferenceArray<Timer> stageDurations = new AtomicReferenceArray<>(
+      Signal.values().length * Encoding.values().length * Stage.values().length);
+  /**
+   * Indexed by the ordinals of signal, encoding and distribution, and registered on first use
+   * like {@link #stageDurations}. For example, span distributions never occur on logs.
+   */
+  final AtomicReferenceArray<DistributionSummary> distributions = new AtomicReferenceArray<>(
+      Signal.values().length * Encoding.values().length * Distribution.values().length);
+
+  /**
+   * @param percentileHistograms whether to publish histogram buckets for stage durations and
+   * distributions, so percentiles can be aggregated. This adds dozens of series per meter.
+   */
+  MicrometerOtelCollectorMetrics(MeterRegistry registry, boolean percentileHistograms) {
+    this.registry = registry;
+    this.percentileHistograms = percentileHistograms;
+    for (TruncatedValue type : TruncatedValue.values()) {
+      valuesTruncated.put(type, Counter.builder("zipkin_collector.values_truncated")
+          .description("Values cut to their configured maximum length")
+          .tag("transport", TRANSPORT)
+          .tag("type", type.name().toLowerCase(Locale.ROOT))
+          .register(registry));
+    }
+    for (LogEventDropped reason : LogEventDropped.values()) {
+      logEventsDropped.put(reason, Counter.builder("zipkin_collector.log_events_dropped")
+          .description("Log events not converted to annotations, by why they were dropped")
+          .tag("transport", TRANSPORT)
+          .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+          .register(registry));
+    }
+    spanNamesCollapsed = Counter.builder("zipkin_collector.span_names_collapsed")
+        .description("Spans renamed because their service had too many distinct names")
+        .tag("transport", TRANSPORT)
+        .register(registry);
+    tagKeysDemoted = Counter.builder("zipkin_collector.tag_keys_demoted")
+        .description("Tag keys demoted because they had too many distinct values")
+        .tag("transport", TRANSPORT)
+        .register(registry);
+    logSpansJoined = Counter.builder("zipkin_collector.log_spans_joined")
+        .description("Spans from log events merged into their span before storage")
+        .tag("transport", TRANSPORT)
+        .register(registry);
+    logSpansExpired = Counter.builder("zipkin_collector.log_spans_expired")
+        .description("Spans from log events stored separately, as their span didn't arrive in time")
+        .tag("transport", TRANSPORT)
+        .register(registry);
+    logSpansRejected = Counter.builder("zipkin_collector.log_spans_rejected")
+        .description("Spans from log events stored immediately, as the join buffer was full")
+        .tag("transport", TRANSPORT)
+        .register(registry);
+  }
+
+  Timer stageDuration(Signal signal, Encoding encoding, Stage stage) {
+    int index = (signal.ordinal() * Encoding.values().length + encoding.ordinal())
+        * Stage.values().length + stage.ordinal();
+    Timer timer = stageDurations.get(index);
+    if (timer != null) return timer;
+    // Registering the same timer twice returns the same instance, so racing here is harmless.
+    timer = Timer.builder("zipkin_collector.stage_duration")
+        .description("Time taken by each stage of ingesting a request")
+        .tag("transport", TRANSPORT)
+        .tag("endpoint", signal.path())
+        .tag("content_type", encoding.name().toLowerCase(Locale.ROOT))
+        .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+        .publishPercentileHistogram(percentileHistograms)
+        // Bounds the histogram buckets to what's plausible for a request.
+        .minimumExpectedValue(Duration.ofNanos(1000))
+        .maximumExpectedValue(Duration.ofSeconds(30))
+        .register(registry);
+    stageDurations.set(index, timer);
+    return timer;
+  }
+
+  DistributionSummary distribution(Signal signal, Encoding encoding, Distribution distribution) {
+    int index = (signal.ordinal() * Encoding.values().length + encoding.ordinal())
+        * Distribution.values().length + distribution.ordinal();
+    DistributionSummary summary = distributions.get(index);
+    if (summary != null) return summary;
+    summary = distributionSummary(distribution)
+        .tag("transport", TRANSPORT)
+        .tag("endpoint", signal.path())
+        .tag("content_type", encoding.name().toLowerCase(Locale.ROOT))
+        .publishPercentileHistogram(percentileHistograms)
+        .register(registry);
+    distributions.set(index, summary);
+    return summary;
+  }
+
+  /** Names each distribution after its enum constant, ex. "zipkin_collector.request_bytes". */
+  static DistributionSummary.Builder distributionSummary(Distribution distribution) {
+    String name = "zipkin_collector." + distribution.name().toLowerCase(Locale.ROOT);
+    DistributionSummary.Builder builder = DistributionSummary.builder(name);
+    switch (distribution) {
+      case REQUEST_COMPRESSED_BYTES:
+        return builder.description("Bytes received per compressed request, before decompression")
+            .baseUnit("bytes").minimumExpectedValue(1.0).maximumExpectedValue(64.0 * 1024 * 1024);
+      case REQUEST_BYTES:
+        return builder.description("Bytes per request, after decompression")
+            .baseUnit("bytes").minimumExpectedValue(1.0).maximumExpectedValue(64.0 * 1024 * 1024);
+      case REQUEST_ITEMS:
+        return builder.description("Spans or log records per request")
+            .minimumExpectedValue(1.0).maximumExpectedValue(100_000.0);
+      case REQUEST_RESOURCES:
+        return builder.description("Resources per request")
+            .minimumExpectedValue(1.0).maximumExpectedValue(10_000.0);
+      case SPAN_ATTRIBUTES:
+        return builder.description("Attributes per span, before any are dropped")
+            .minimumExpectedValue(1.0).maximumExpectedValue(1_000.0);
+      case SPAN_EVENTS:
+        return builder.description("Events per span")
+            .minimumExpectedValue(1.0).maximumExpectedValue(1_000.0);
+      default:
+        throw new AssertionError("unknown distribution " + distribution);
+    }
+  }
+
+  /** Registers gauges for the log spans held by the collector, waiting for their span. */
+  static void bindLogJoinBuffer(MeterRegistry registry, OpenTelemetryHttpCollector collector) {
+    Gauge.builder("zipkin_collector.log_join_buffer_spans", collector,
+            OpenTelemetryHttpCollector::bufferedLogSpans)
+        .description("Spans from log events waiting for their span")
+        .tag("transport", TRANSPORT)
+        .register(registry);
+    Gauge.builder("zipkin_collector.log_join_buffer_annotations", collector,
+            OpenTelemetryHttpCollector::bufferedLogAnnotations)
+        .description("Annotations in spans from log events waiting for their span")
+        .tag("transport", TRANSPORT)
+        .register(registry);
+  }
+
+  @Override public void incrementAttributesDropped(String rule) {
+    Counter counter = attributesDropped.get(rule);
+    if (counter == null) {
+      // Rules come from configuration, so the number of counters is bounded.
+      counter = attributesDropped.computeIfAbsent(rule,
+          r -> Counter.builder("zipkin_collector.attributes_dropped")
+              .description("Span attributes not converted to tags, by the rule that dropped them")
+              .tag("transport", TRANSPORT)
+              .tag("rule", r)
+              .register(registry));
+    }
+    counter.increment();
+  }
+
+  @Override public void incrementValuesTruncated(TruncatedValue type) {
+    valuesTruncated.get(type).increment();
+  }
+
+  @Override public void incrementSpanNamesCollapsed() {
+    spanNamesCollapsed.increment();
+  }
+
+  @Override public void incrementTagKeysDemoted() {
+    tagKeysDemoted.increment();
+  }
+
+  @Override public void incrementLogEventsDropped(LogEventDropped reason) {
+    logEventsDropped.get(reason).increment();
+  }
+
+  @Override public void incrementLogSpansJoined() {
+    logSpansJoined.increment();
+  }
+
+  @Override public void incrementLogSpansExpired(int quantity) {
+    logSpansExpired.increment(quantity);
+  }
+
+  @Override public void incrementLogSpansRejected() {
+    logSpansRejected.increment();
+  }
+
+  @Override
+  public void recordStage(Signal signal, Encoding encoding, Stage stage, long durationNanos) {
+    stageDuration(signal, encoding, stage).record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override public void recordDistribution(Signal signal, Encoding encoding,
+      Distribution distribution, long value) {
+    distribution(signal, encoding, distribution).record(value);
+  }
+
+  @Override public String toString() {
+    return "MicrometerOtelCollectorMetrics{transport=" + TRANSPORT + "}";
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin.module.otel;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import zipkin2.collector.otel.http.IngestVolume;
+import zipkin2.collector.otel.http.OpenTelemetryHttpCollector;
+
+/**
+ * Lists the services and span names with the most spans over the last minute, so that operators
+ * can find the cause of an ingest spike. Expose it with
+ * {@code management.endpoints.web.exposure.include=otelingestvolume}.
+ */
+@Endpoint(id = "otelingestvolume")
+public class OtelIngestVolumeEndpoint {
+  static final int DEFAULT_LIMIT = 20;
+
+  final OpenTelemetryHttpCollector collector;
+
+  OtelIngestVolumeEndpoint(OpenTelemetryHttpCollector collector) {
+    this.collector = collector;
+  }
+
+  @ReadOperation
+  public Map<String, List<Map<String, Object>>> volumes(@Nullable Integer limit) {
+    int n = limit != null ? limit : DEFAULT_LIMIT;
+    if (n < 0) throw new InvalidEndpointRequestException("limit < 0", "limit must not be negative");
+    Map<String, List<Map<String, Object>>> result = new LinkedHashMap<>();
+    result.put("services", toMaps(collector.topServicesByVolume(n)));
+    result.put("spanNames", toMaps(collector.topSpanNamesByVolume(n)));
+    return result;
+  }
+
+  static List<Map<String, Object>> toMaps(List<IngestVolume> volumes) {
+    List<Map<String, Object>> result = new ArrayList<>();
+    for (IngestVolume volume : volumes) {
+      Map<String, Object> map = new LinkedHashMap<>();
+      map.put("serviceName", volume.serviceName());
+      if (volume.spanName() != null) map.put("spanName", volume.spanName());
+      map.put("spans", volume.spans());
+      map.put("bytes", volume.bytes());
+      map.put("spansError", volume.spansError());
+      map.put("bytesError", volume.bytesError());
+      result.add(map);
+    }
+    return result;
+  }
+}
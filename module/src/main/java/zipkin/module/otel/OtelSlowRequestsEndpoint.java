@@ -0,0 +1,58 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin.module.otel;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import zipkin2.collector.otel.http.OpenTelemetryHttpCollector;
+import zipkin2.collector.otel.http.SlowRequest;
+
+/**
+ * Lists digests of the most recent slow requests, so that operators can see what was special
+ * about their payloads. Expose it with
+ * {@code management.endpoints.web.exposure.include=otelslowrequests}.
+ */
+@Endpoint(id = "otelslowrequests")
+public class OtelSlowRequestsEndpoint {
+  final OpenTelemetryHttpCollector collector;
+
+  OtelSlowRequestsEndpoint(OpenTelemetryHttpCollector collector) {
+    this.collector = collector;
+  }
+
+  @ReadOperation
+  public List<Map<String, Object>> slowRequests() {
+    List<Map<String, Object>> result = new ArrayList<>();
+    for (SlowRequest request : collector.slowRequests()) {
+      Map<String, Object> map = new LinkedHashMap<>();
+      map.put("timestamp", request.timestamp());
+      map.put("endpoint", request.signal().path());
+      map.put("contentType", request.encoding().name().toLowerCase(Locale.ROOT));
+      map.put("outcome", request.outcome());
+      map.put("durationNanos", request.durationNanos());
+      Map<String, Long> stageNanos = new LinkedHashMap<>();
+      request.stageNanos().forEach(
+          (stage, nanos) -> stageNanos.put(stage.name().toLowerCase(Locale.ROOT), nanos));
+      map.put("stageNanos", stageNanos);
+      map.put("bytes", request.bytes());
+      if (request.compressedBytes() != -1L) map.put("compressedBytes", request.compressedBytes());
+      map.put("resources", request.resources());
+      map.put("items", request.items());
+      map.put("serviceNames", request.serviceNames());
+      if (request.largestAttributeKey() != null) {
+        map.put("largestAttributeKey", request.largestAttributeKey());
+        map.put("largestAttributeBytes", request.largestAttributeBytes());
+      }
+      map.put("maxValueDepth", request.maxValueDepth());
+      result.add(map);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright The OpenZipkin Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package zipkin.module.otel;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import zipkin2.collector.otel.http.OpenTelemetryHttpCollector;
+
+/**
+ * Lists the span tag keys with the most distinct values, so that operators can find the
+ * instrumentation responsible for index growth. Expose it with
+ * {@code management.endpoints.web.exposure.include=oteltagcardinality}.
+ */
+@Endpoint(id = "oteltagcardinality")
+public class OtelTagCardinalityEndpoint {
+  static final int DEFAULT_LIMIT = 20;
+
+  final OpenTelemetryHttpCollector collector;
+
+  OtelTagCardinalityEndpoint(OpenTelemetryHttpCollector collector) {
+    this.collector = collector;
+  }
+
+  @ReadOperation
+  public List<Map<String, Object>> tagKeys(@Nullable Integer limit) {
+    Set<String> demoted = collector.demotedTagKeys();
+    List<Map<String, Object>> result = new ArrayList<>();
+    collector.tagKeyCardinalities(limit != null ? limit : DEFAULT_LIMIT).forEach((key, count) -> {
+      Map<String, Object> tagKey = new LinkedHashMap<>();
+      tagKey.put("key", key);
+      tagKey.put("cardinality", count);
+      tagKey.put("demoted", demoted.contains(key));
+      result.add(tagKey);
+    });
+    return result;
+  }
+}
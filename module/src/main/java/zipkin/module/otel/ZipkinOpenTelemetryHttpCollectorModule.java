@@ -5,6 +5,10 @@
 package zipkin.module.otel;
 
 import com.linecorp.armeria.spring.ArmeriaServerConfigurator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -14,6 +18,7 @@ import zipkin2.collector.CollectorMetrics;
 import zipkin2.collector.CollectorSampler;
 import zipkin2.collector.otel.http.DefaultOtelResourceMapper;
 import zipkin2.collector.otel.http.OpenTelemetryHttpCollector;
+import zipkin2.collector.otel.http.OtelCollectorMetrics;
 import zipkin2.collector.otel.http.OtelResourceMapper;
 import zipkin2.storage.StorageComponent;
 
@@ -24,15 +29,45 @@ class ZipkinOpenTelemetryHttpCollectorModule {
   @Bean
   OpenTelemetryHttpCollector otelHttpCollector(StorageComponent storage,
       CollectorSampler sampler, CollectorMetrics metrics,
-      OtelResourceMapper otelResourceMapper,
+      OtelResourceMapper otelResourceMapper, OtelCollectorMetrics otelCollectorMetrics,
+      ObjectProvider<MeterRegistry> registry,
       ZipkinOpenTelemetryHttpCollectorProperties properties) {
     OpenTelemetryHttpCollector.Builder builder = OpenTelemetryHttpCollector.newBuilder();
-    return builder
+    if (properties.getSpanNamePlaceholder() != null) {
+      builder.spanNamePlaceholder(properties.getSpanNamePlaceholder());
+    }
+    OpenTelemetryHttpCollector collector = builder
         .storage(storage)
         .sampler(sampler)
         .metrics(metrics)
         .otelResourceMapper(otelResourceMapper)
+        .otelCollectorMetrics(otelCollectorMetrics)
+        .internStrings(properties.isInternStrings())
+        .attributeAllowList(properties.getAttributeAllowList())
+        .attributeDenyList(properties.getAttributeDenyList())
+        .maxTagValueLength(properties.getMaxTagValueLength())
+        .maxTagValueLengths(properties.maxTagValueLengthsMap())
+        .maxAnnotationLength(properties.getMaxAnnotationLength())
+        .maxSpanNamesPerService(properties.getMaxSpanNamesPerService())
+        .spanNameTemplates(properties.getSpanNameTemplates())
+        .maxTagCardinality(properties.getMaxTagCardinality())
+        .tagOverflowMode(properties.getTagOverflowMode())
+        .elidePromotedAttributes(properties.isElidePromotedAttributes())
+        .minLogEventSeverity(properties.getMinLogEventSeverity())
+        .logEventAllowList(properties.getLogEventAllowList())
+        .logEventDenyList(properties.getLogEventDenyList())
+        .logEventSampleRates(properties.logEventSampleRatesMap())
+        .logJoinWindowMillis(properties.getLogJoinWindowMillis())
+        .maxLogJoinSpans(properties.getMaxLogJoinSpans())
+        .maxIngestVolumeKeys(properties.getMaxIngestVolumeKeys())
+        .slowRequestThresholdMillis(properties.getSlowRequestThresholdMillis())
+        .slowRequestSampleRate(properties.getSlowRequestSampleRate())
         .build();
+    MeterRegistry meterRegistry = registry.getIfAvailable();
+    if (meterRegistry != null && properties.getLogJoinWindowMillis() > 0) {
+      MicrometerOtelCollectorMetrics.bindLogJoinBuffer(meterRegistry, collector);
+    }
+    return collector.start();
   }
 
   @Bean
@@ -48,6 +83,38 @@ class ZipkinOpenTelemetryHttpCollectorModule {
     if (properties.getResourceAttributePrefix() != null) {
       builder.resourceAttributePrefix(properties.getResourceAttributePrefix());
     }
+    builder.internStrings(properties.isInternStrings())
+        .resourceAttributeAllowList(properties.getResourceAttributeAllowList())
+        .resourceAttributeDenyList(properties.getResourceAttributeDenyList())
+        .resourceAttributeRenames(properties.resourceAttributeRenamesMap());
     return builder.build();
   }
+
+  @ConditionalOnMissingBean(OtelCollectorMetrics.class)
+  @Bean
+  OtelCollectorMetrics otelCollectorMetrics(ObjectProvider<MeterRegistry> registry,
+      ZipkinOpenTelemetryHttpCollectorProperties properties) {
+    MeterRegistry meterRegistry = registry.getIfAvailable();
+    if (meterRegistry == null) return OtelCollectorMetrics.NOOP_METRICS;
+    return new MicrometerOtelCollectorMetrics(meterRegistry, properties.isPercentileHistograms());
+  }
+
+  @Configuration
+  @ConditionalOnClass(Endpoint.class)
+  static class ActuatorConfiguration {
+    @Bean
+    OtelTagCardinalityEndpoint otelTagCardinalityEndpoint(OpenTelemetryHttpCollector collector) {
+      return new OtelTagCardinalityEndpoint(collector);
+    }
+
+    @Bean
+    OtelIngestVolumeEndpoint otelIngestVolumeEndpoint(OpenTelemetryHttpCollector collector) {
+      return new OtelIngestVolumeEndpoint(collector);
+    }
+
+    @Bean
+    OtelSlowRequestsEndpoint otelSlowRequestsEndpoint(OpenTelemetryHttpCollector collector) {
+      return new OtelSlowRequestsEndpoint(collector);
+    }
+  }
 }
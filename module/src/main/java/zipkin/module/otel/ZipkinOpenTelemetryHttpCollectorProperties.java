@@ -4,11 +4,41 @@
  */
 package zipkin.module.otel;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import zipkin2.collector.otel.http.TagOverflowMode;
 
 @ConfigurationProperties("zipkin.collector.otel.http")
 public class ZipkinOpenTelemetryHttpCollectorProperties {
   private String resourceAttributePrefix;
+  private boolean internStrings;
+  private List<String> attributeAllowList = new ArrayList<>();
+  private List<String> attributeDenyList = new ArrayList<>();
+  private List<String> resourceAttributeAllowList = new ArrayList<>();
+  private List<String> resourceAttributeDenyList = new ArrayList<>();
+  private List<String> resourceAttributeRenames = new ArrayList<>();
+  private int maxTagValueLength;
+  private List<String> maxTagValueLengths = new ArrayList<>();
+  private int maxAnnotationLength;
+  private int maxSpanNamesPerService;
+  private List<String> spanNameTemplates = new ArrayList<>();
+  private String spanNamePlaceholder;
+  private int maxTagCardinality;
+  private TagOverflowMode tagOverflowMode = TagOverflowMode.DROP;
+  private boolean elidePromotedAttributes;
+  private int minLogEventSeverity;
+  private List<String> logEventAllowList = new ArrayList<>();
+  private List<String> logEventDenyList = new ArrayList<>();
+  private List<String> logEventSampleRates = new ArrayList<>();
+  private int logJoinWindowMillis;
+  private int maxLogJoinSpans = 10000;
+  private int maxIngestVolumeKeys;
+  private int slowRequestThresholdMillis;
+  private float slowRequestSampleRate = 0.1f;
+  private boolean percentileHistograms;
 
   public String getResourceAttributePrefix() {
     return resourceAttributePrefix;
@@ -17,4 +47,249 @@ public class ZipkinOpenTelemetryHttpCollectorProperties {
   public void setResourceAttributePrefix(String resourceAttributePrefix) {
     this.resourceAttributePrefix = resourceAttributePrefix;
   }
+
+  public boolean isInternStrings() {
+    return internStrings;
+  }
+
+  public void setInternStrings(boolean internStrings) {
+    this.internStrings = internStrings;
+  }
+
+  public List<String> getAttributeAllowList() {
+    return attributeAllowList;
+  }
+
+  public void setAttributeAllowList(List<String> attributeAllowList) {
+    this.attributeAllowList = attributeAllowList;
+  }
+
+  public List<String> getAttributeDenyList() {
+    return attributeDenyList;
+  }
+
+  public void setAttributeDenyList(List<String> attributeDenyList) {
+    this.attributeDenyList = attributeDenyList;
+  }
+
+  public List<String> getResourceAttributeAllowList() {
+    return resourceAttributeAllowList;
+  }
+
+  public void setResourceAttributeAllowList(List<String> resourceAttributeAllowList) {
+    this.resourceAttributeAllowList = resourceAttributeAllowList;
+  }
+
+  public List<String> getResourceAttributeDenyList() {
+    return resourceAttributeDenyList;
+  }
+
+  public void setResourceAttributeDenyList(List<String> resourceAttributeDenyList) {
+    this.resourceAttributeDenyList = resourceAttributeDenyList;
+  }
+
+  /** Entries like "k8s.pod.name=pod", so that renames can be set with a single variable. */
+  public List<String> getResourceAttributeRenames() {
+    return resourceAttributeRenames;
+  }
+
+  public void setResourceAttributeRenames(List<String> resourceAttributeRenames) {
+    this.resourceAttributeRenames = resourceAttributeRenames;
+  }
+
+  public int getMaxTagValueLength() {
+    return maxTagValueLength;
+  }
+
+  public void setMaxTagValueLength(int maxTagValueLength) {
+    this.maxTagValueLength = maxTagValueLength;
+  }
+
+  /** Entries like "db.statement=1024", so that limits can be set with a single variable. */
+  public List<String> getMaxTagValueLengths() {
+    return maxTagValueLengths;
+  }
+
+  public void setMaxTagValueLengths(List<String> maxTagValueLengths) {
+    this.maxTagValueLengths = maxTagValueLengths;
+  }
+
+  public int getMaxAnnotationLength() {
+    return maxAnnotationLength;
+  }
+
+  public void setMaxAnnotationLength(int maxAnnotationLength) {
+    this.maxAnnotationLength = maxAnnotationLength;
+  }
+
+  public int getMaxSpanNamesPerService() {
+    return maxSpanNamesPerService;
+  }
+
+  public void setMaxSpanNamesPerService(int maxSpanNamesPerService) {
+    this.maxSpanNamesPerService = maxSpanNamesPerService;
+  }
+
+  public List<String> getSpanNameTemplates() {
+    return spanNameTemplates;
+  }
+
+  public void setSpanNameTemplates(List<String> spanNameTemplates) {
+    this.spanNameTemplates = spanNameTemplates;
+  }
+
+  public String getSpanNamePlaceholder() {
+    return spanNamePlaceholder;
+  }
+
+  public void setSpanNamePlaceholder(String spanNamePlaceholder) {
+    this.spanNamePlaceholder = spanNamePlaceholder;
+  }
+
+  public int getMaxTagCardinality() {
+    return maxTagCardinality;
+  }
+
+  public void setMaxTagCardinality(int maxTagCardinality) {
+    this.maxTagCardinality = maxTagCardinality;
+  }
+
+  public TagOverflowMode getTagOverflowMode() {
+    return tagOverflowMode;
+  }
+
+  public void setTagOverflowMode(TagOverflowMode tagOverflowMode) {
+    this.tagOverflowMode = tagOverflowMode;
+  }
+
+  public boolean isElidePromotedAttributes() {
+    return elidePromotedAttributes;
+  }
+
+  public void setElidePromotedAttributes(boolean elidePromotedAttributes) {
+    this.elidePromotedAttributes = elidePromotedAttributes;
+  }
+
+  public int getMinLogEventSeverity() {
+    return minLogEventSeverity;
+  }
+
+  public void setMinLogEventSeverity(int minLogEventSeverity) {
+    this.minLogEventSeverity = minLogEventSeverity;
+  }
+
+  public List<String> getLogEventAllowList() {
+    return logEventAllowList;
+  }
+
+  public void setLogEventAllowList(List<String> logEventAllowList) {
+    this.logEventAllowList = logEventAllowList;
+  }
+
+  public List<String> getLogEventDenyList() {
+    return logEventDenyList;
+  }
+
+  public void setLogEventDenyList(List<String> logEventDenyList) {
+    this.logEventDenyList = logEventDenyList;
+  }
+
+  public List<String> getLogEventSampleRates() {
+    return logEventSampleRates;
+  }
+
+  public void setLogEventSampleRates(List<String> logEventSampleRates) {
+    this.logEventSampleRates = logEventSampleRates;
+  }
+
+  public int getLogJoinWindowMillis() {
+    return logJoinWindowMillis;
+  }
+
+  public void setLogJoinWindowMillis(int logJoinWindowMillis) {
+    this.logJoinWindowMillis = logJoinWindowMillis;
+  }
+
+  public int getMaxLogJoinSpans() {
+    return maxLogJoinSpans;
+  }
+
+  public void setMaxLogJoinSpans(int maxLogJoinSpans) {
+    this.maxLogJoinSpans = maxLogJoinSpans;
+  }
+
+  public int getMaxIngestVolumeKeys() {
+    return maxIngestVolumeKeys;
+  }
+
+  public void setMaxIngestVolumeKeys(int maxIngestVolumeKeys) {
+    this.maxIngestVolumeKeys = maxIngestVolumeKeys;
+  }
+
+  public int getSlowRequestThresholdMillis() {
+    return slowRequestThresholdMillis;
+  }
+
+  public void setSlowRequestThresholdMillis(int slowRequestThresholdMillis) {
+    this.slowRequestThresholdMillis = slowRequestThresholdMillis;
+  }
+
+  public float getSlowRequestSampleRate() {
+    return slowRequestSampleRate;
+  }
+
+  public void setSlowRequestSampleRate(float slowRequestSampleRate) {
+    this.slowRequestSampleRate = slowRequestSampleRate;
+  }
+
+  public boolean isPercentileHistograms() {
+    return percentileHistograms;
+  }
+
+  public void setPercentileHistograms(boolean percentileHistograms) {
+    this.percentileHistograms = percentileHistograms;
+  }
+
+  Map<String, String> resourceAttributeRenamesMap() {
+    return toMap("resource-attribute-renames", "key=newKey", resourceAttributeRenames);
+  }
+
+  Map<String, Integer> maxTagValueLengthsMap() {
+    Map<String, Integer> result = new LinkedHashMap<>();
+    toMap("max-tag-value-lengths", "key=length", maxTagValueLengths).forEach((key, length) -> {
+      try {
+        result.put(key, Integer.parseInt(length));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(
+            "max-tag-value-lengths entry should be key=length, but was " + key + "=" + length);
+      }
+    });
+    return result;
+  }
+
+  Map<String, Float> logEventSampleRatesMap() {
+    Map<String, Float> result = new LinkedHashMap<>();
+    toMap("log-event-sample-rates", "name=rate", logEventSampleRates).forEach((name, rate) -> {
+      try {
+        result.put(name, Float.parseFloat(rate));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(
+            "log-event-sample-rates entry should be name=rate, but was " + name + "=" + rate);
+      }
+    });
+    return result;
+  }
+
+  static Map<String, String> toMap(String property, String format, List<String> entries) {
+    Map<String, String> result = new LinkedHashMap<>();
+    for (String entry : entries) {
+      int equals = entry.indexOf('=');
+      if (equals < 1 || equals == entry.length() - 1) {
+        throw new IllegalArgumentException(
+            property + " entry should be " + format + ", but was " + entry);
+      }
+      result.put(entry.substring(0, equals).trim(), entry.substring(equals + 1).trim());
+    }
+    return result;
+  }
 }
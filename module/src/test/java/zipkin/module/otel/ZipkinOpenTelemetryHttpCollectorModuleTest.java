@@ -5,19 +5,32 @@
 package zipkin.module.otel;
 
 import com.linecorp.armeria.spring.ArmeriaServerConfigurator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.proto.common.v1.AnyValue;
+import io.opentelemetry.proto.common.v1.KeyValue;
+import io.opentelemetry.proto.resource.v1.Resource;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import zipkin2.Span;
 import zipkin2.collector.CollectorMetrics;
 import zipkin2.collector.CollectorSampler;
 import zipkin2.collector.otel.http.DefaultOtelResourceMapper;
 import zipkin2.collector.otel.http.OpenTelemetryHttpCollector;
+import zipkin2.collector.otel.http.OtelCollectorMetrics;
 import zipkin2.collector.otel.http.OtelResourceMapper;
+import zipkin2.collector.otel.http.TagOverflowMode;
 import zipkin2.storage.InMemoryStorage;
 import zipkin2.storage.StorageComponent;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 
 class ZipkinOpenTelemetryHttpCollectorModuleTest {
 
@@ -58,6 +71,88 @@ class ZipkinOpenTelemetryHttpCollectorModuleTest {
         });
   }
 
+  @Test
+  void httpCollector_resourceAttributeProjection() {
+    contextRunner.withUserConfiguration(ZipkinOpenTelemetryHttpCollectorModule.class)
+        .withUserConfiguration(InMemoryConfiguration.class)
+        .withPropertyValues(
+            "zipkin.collector.otel.http.resource-attribute-allow-list=k8s.*",
+            "zipkin.collector.otel.http.resource-attribute-renames=k8s.pod.name=pod")
+        .run(context -> {
+          OtelResourceMapper otelResourceMapper =
+              context.getBean(OpenTelemetryHttpCollector.class).getOtelResourceMapper();
+          Resource resource = Resource.newBuilder()
+              .addAttributes(KeyValue.newBuilder().setKey("host.name")
+                  .setValue(AnyValue.newBuilder().setStringValue("host-1")))
+              .addAttributes(KeyValue.newBuilder().setKey("k8s.pod.name")
+                  .setValue(AnyValue.newBuilder().setStringValue("frontend-abcde")))
+              .build();
+          Span.Builder span = Span.newBuilder().traceId("1").id("2");
+          otelResourceMapper.accept(resource, span);
+
+          assertThat(span.build().tags()).containsExactly(entry("pod", "frontend-abcde"));
+        });
+  }
+
+  @Test
+  void httpCollector_maxTagValueLengths() {
+    contextRunner.withUserConfiguration(ZipkinOpenTelemetryHttpCollectorModule.class)
+        .withUserConfiguration(InMemoryConfiguration.class)
+        .withPropertyValues(
+            "zipkin.collector.otel.http.max-tag-value-lengths=db.statement=1024,exception.stacktrace=0")
+        .run(context -> assertThat(
+            context.getBean(ZipkinOpenTelemetryHttpCollectorProperties.class)
+                .maxTagValueLengthsMap())
+            .containsExactly(entry("db.statement", 1024), entry("exception.stacktrace", 0)));
+  }
+
+  @Test
+  void otelTagCardinalityEndpoint() {
+    contextRunner.withUserConfiguration(ZipkinOpenTelemetryHttpCollectorModule.class)
+        .withUserConfiguration(InMemoryConfiguration.class)
+        .withPropertyValues("zipkin.collector.otel.http.max-tag-cardinality=100",
+            "zipkin.collector.otel.http.tag-overflow-mode=HASH")
+        .run(context -> {
+          assertThat(context).hasSingleBean(OtelTagCardinalityEndpoint.class);
+          assertThat(context.getBean(ZipkinOpenTelemetryHttpCollectorProperties.class)
+              .getTagOverflowMode()).isEqualTo(TagOverflowMode.HASH);
+          assertThat(context.getBean(OtelTagCardinalityEndpoint.class).tagKeys(null)).isEmpty();
+        });
+  }
+
+  @Test
+  void otelIngestVolumeEndpoint() {
+    contextRunner.withUserConfiguration(ZipkinOpenTelemetryHttpCollectorModule.class)
+        .withUserConfiguration(InMemoryConfiguration.class)
+        .withPropertyValues("zipkin.collector.otel.http.max-ingest-volume-keys=100")
+        .run(context -> {
+          assertThat(context).hasSingleBean(OtelIngestVolumeEndpoint.class);
+          assertThat(context.getBean(ZipkinOpenTelemetryHttpCollectorProperties.class)
+              .getMaxIngestVolumeKeys()).isEqualTo(100);
+          assertThat(context.getBean(OtelIngestVolumeEndpoint.class).volumes(null))
+              .containsOnlyKeys("services", "spanNames")
+              .allSatisfy((kind, volumes) -> assertThat(volumes).isEmpty());
+          assertThatThrownBy(() -> context.getBean(OtelIngestVolumeEndpoint.class).volumes(-1))
+              .isInstanceOf(InvalidEndpointRequestException.class);
+        });
+  }
+
+  @Test
+  void otelSlowRequestsEndpoint() {
+    contextRunner.withUserConfiguration(ZipkinOpenTelemetryHttpCollectorModule.class)
+        .withUserConfiguration(InMemoryConfiguration.class)
+        .withPropertyValues("zipkin.collector.otel.http.slow-request-threshold-millis=500",
+            "zipkin.collector.otel.http.slow-request-sample-rate=0.5")
+        .run(context -> {
+          assertThat(context).hasSingleBean(OtelSlowRequestsEndpoint.class);
+          ZipkinOpenTelemetryHttpCollectorProperties properties =
+              context.getBean(ZipkinOpenTelemetryHttpCollectorProperties.class);
+          assertThat(properties.getSlowRequestThresholdMillis()).isEqualTo(500);
+          assertThat(properties.getSlowRequestSampleRate()).isEqualTo(0.5f);
+          assertThat(context.getBean(OtelSlowRequestsEndpoint.class).slowRequests()).isEmpty();
+        });
+  }
+
   @Test
   void httpCollector_customOtelResourceMapper() {
     OtelResourceMapper customOtelResourceMapper = (resource, builder) -> {
@@ -76,6 +171,152 @@ class ZipkinOpenTelemetryHttpCollectorModuleTest {
         });
   }
 
+  @Test
+  void otelCollectorMetrics_noopWithoutRegistry() {
+    contextRunner.withUserConfiguration(ZipkinOpenTelemetryHttpCollectorModule.class)
+        .withUserConfiguration(InMemoryConfiguration.class)
+        .run(context -> assertThat(context.getBean(OtelCollectorMetrics.class))
+            .isSameAs(OtelCollectorMetrics.NOOP_METRICS));
+  }
+
+  @Test
+  void otelCollectorMetrics_micrometer() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    contextRunner.withUserConfiguration(ZipkinOpenTelemetryHttpCollectorModule.class)
+        .withUserConfiguration(InMemoryConfiguration.class)
+        .withBean(MeterRegistry.class, () -> registry)
+        .withPropertyValues("zipkin.collector.otel.http.attribute-deny-list=thread.*,code.*")
+        .run(context -> {
+          assertThat(context).hasSingleBean(OpenTelemetryHttpCollector.class);
+          OtelCollectorMetrics metrics = context.getBean(OtelCollectorMetrics.class);
+          assertThat(metrics).isInstanceOf(MicrometerOtelCollectorMetrics.class);
+          assertThat(context.getBean(ZipkinOpenTelemetryHttpCollectorProperties.class)
+              .getAttributeDenyList()).containsExactly("thread.*", "code.*");
+
+          metrics.incrementAttributesDropped("thread.*");
+          metrics.incrementAttributesDropped("thread.*");
+
+          metrics.incrementValuesTruncated(OtelCollectorMetrics.TruncatedValue.TAG);
+
+          assertThat(registry.get("zipkin_collector.values_truncated")
+              .tag("transport", "otel/http")
+              .tag("type", "tag")
+              .counter().count()).isEqualTo(1.0);
+          metrics.incrementSpanNamesCollapsed();
+
+          assertThat(registry.get("zipkin_collector.span_names_collapsed")
+              .tag("transport", "otel/http")
+              .counter().count()).isEqualTo(1.0);
+
+          // Stage timers are registered on first use.
+          assertThat(registry.find("zipkin_collector.stage_duration").timers()).isEmpty();
+          metrics.recordStage(OtelCollectorMetrics.Signal.LOGS,
+              OtelCollectorMetrics.Encoding.JSON, OtelCollectorMetrics.Stage.FIX_JSON_IDS, 5000L);
+          Timer stageDuration = registry.get("zipkin_collector.stage_duration")
+              .tag("transport", "otel/http")
+              .tag("endpoint", "/v1/logs")
+              .tag("content_type", "json")
+              .tag("stage", "fix_json_ids")
+              .timer();
+          assertThat(stageDuration.totalTime(TimeUnit.NANOSECONDS)).isEqualTo(5000.0);
+          assertThat(stageDuration.takeSnapshot().histogramCounts()).isEmpty();
+          assertThat(registry.find("zipkin_collector.stage_duration").timers()).hasSize(1);
+
+          assertThat(registry.find("zipkin_collector.request_compressed_bytes").summaries())
+              .isEmpty();
+          metrics.recordDistribution(OtelCollectorMetrics.Signal.TRACES,
+              OtelCollectorMetrics.Encoding.PROTOBUF,
+              OtelCollectorMetrics.Distribution.REQUEST_COMPRESSED_BYTES, 1024L);
+          assertThat(registry.find("zipkin_collector.request_compressed_bytes").summaries())
+              .hasSize(1);
+          assertThat(registry.find("zipkin_collector.span_attributes").summaries()).isEmpty();
+          assertThat(registry.get("zipkin_collector.request_compressed_bytes")
+              .tag("transport", "otel/http")
+              .tag("endpoint", "/v1/traces")
+              .tag("content_type", "protobuf")
+              .summary().totalAmount()).isEqualTo(1024.0);
+          assertThat(registry.get("zipkin_collector.attributes_dropped")
+              .tag("transport", "otel/http")
+              .tag("rule", "thread.*")
+              .counter().count()).isEqualTo(2.0);
+        });
+  }
+
+  @Test
+  void otelCollectorMetrics_percentileHistograms() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    contextRunner.withUserConfiguration(ZipkinOpenTelemetryHttpCollectorModule.class)
+        .withUserConfiguration(InMemoryConfiguration.class)
+        .withBean(MeterRegistry.class, () -> registry)
+        .withPropertyValues("zipkin.collector.otel.http.percentile-histograms=true")
+        .run(context -> {
+          OtelCollectorMetrics metrics = context.getBean(OtelCollectorMetrics.class);
+          metrics.recordStage(OtelCollectorMetrics.Signal.TRACES,
+              OtelCollectorMetrics.Encoding.PROTOBUF, OtelCollectorMetrics.Stage.DECODE, 5000L);
+
+          assertThat(registry.get("zipkin_collector.stage_duration")
+              .tag("stage", "decode")
+              .timer().takeSnapshot().histogramCounts()).isNotEmpty();
+
+          metrics.recordDistribution(OtelCollectorMetrics.Signal.TRACES,
+              OtelCollectorMetrics.Encoding.PROTOBUF,
+              OtelCollectorMetrics.Distribution.REQUEST_BYTES, 1024L);
+          assertThat(registry.get("zipkin_collector.request_bytes")
+              .summary().takeSnapshot().histogramCounts()).isNotEmpty();
+        });
+  }
+
+  @Test
+  void logEventFilter() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    contextRunner.withUserConfiguration(ZipkinOpenTelemetryHttpCollectorModule.class)
+        .withUserConfiguration(InMemoryConfiguration.class)
+        .withBean(MeterRegistry.class, () -> registry)
+        .withPropertyValues("zipkin.collector.otel.http.min-log-event-severity=9",
+            "zipkin.collector.otel.http.log-event-deny-list=debug.*",
+            "zipkin.collector.otel.http.log-event-sample-rates=cache.miss=0.01,cache.hit=0")
+        .run(context -> {
+          ZipkinOpenTelemetryHttpCollectorProperties properties =
+              context.getBean(ZipkinOpenTelemetryHttpCollectorProperties.class);
+          assertThat(properties.getMinLogEventSeverity()).isEqualTo(9);
+          assertThat(properties.getLogEventDenyList()).containsExactly("debug.*");
+          assertThat(properties.logEventSampleRatesMap())
+              .containsExactly(entry("cache.miss", 0.01f), entry("cache.hit", 0f));
+
+          context.getBean(OtelCollectorMetrics.class)
+              .incrementLogEventsDropped(OtelCollectorMetrics.LogEventDropped.SAMPLED);
+          assertThat(registry.get("zipkin_collector.log_events_dropped")
+              .tag("transport", "otel/http")
+              .tag("reason", "sampled")
+              .counter().count()).isEqualTo(1.0);
+        });
+  }
+
+  @Test
+  void logJoinBuffer_micrometer() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    contextRunner.withUserConfiguration(ZipkinOpenTelemetryHttpCollectorModule.class)
+        .withUserConfiguration(InMemoryConfiguration.class)
+        .withBean(MeterRegistry.class, () -> registry)
+        .withPropertyValues("zipkin.collector.otel.http.log-join-window-millis=500",
+            "zipkin.collector.otel.http.max-log-join-spans=100")
+        .run(context -> {
+          ZipkinOpenTelemetryHttpCollectorProperties properties =
+              context.getBean(ZipkinOpenTelemetryHttpCollectorProperties.class);
+          assertThat(properties.getLogJoinWindowMillis()).isEqualTo(500);
+          assertThat(properties.getMaxLogJoinSpans()).isEqualTo(100);
+
+          assertThat(registry.get("zipkin_collector.log_join_buffer_spans")
+              .tag("transport", "otel/http")
+              .gauge().value()).isZero();
+
+          context.getBean(OtelCollectorMetrics.class).incrementLogSpansExpired(2);
+          assertThat(registry.get("zipkin_collector.log_spans_expired")
+              .tag("transport", "otel/http")
+              .counter().count()).isEqualTo(2.0);
+        });
+  }
+
   @Test
   void httpCollector_canDisable() {
     contextRunner.withUserConfiguration(ZipkinOpenTelemetryHttpCollectorModule.class)